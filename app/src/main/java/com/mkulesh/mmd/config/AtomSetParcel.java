@@ -0,0 +1,72 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.config;
+
+import android.os.Parcel;
+
+import com.mkulesh.mmd.model.AtomSet;
+import com.mkulesh.mmd.utils.ViewUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Class that stores the state of an atom set in a parcel
+ */
+public class AtomSetParcel
+{
+    /**
+     * Procedure writes the state of given atom set into the parcel
+     */
+    public static void write(AtomSet atomSet, Parcel dest)
+    {
+        try
+        {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(buffer);
+            atomSet.writeState(out);
+            out.flush();
+            dest.writeByteArray(buffer.toByteArray());
+        }
+        catch (IOException ex)
+        {
+            ViewUtils.Debug(atomSet, "error at writing parcel: " + ex.getLocalizedMessage());
+            dest.writeByteArray(new byte[0]);
+        }
+    }
+
+    /**
+     * Procedure reads the state of given atom set from the parcel
+     */
+    public static void read(AtomSet atomSet, Parcel in)
+    {
+        final byte[] state = in.createByteArray();
+        if (state == null || state.length == 0)
+        {
+            return;
+        }
+        try
+        {
+            atomSet.readState(new DataInputStream(new ByteArrayInputStream(state)));
+        }
+        catch (IOException ex)
+        {
+            ViewUtils.Debug(atomSet, "error at reading parcel: " + ex.getLocalizedMessage());
+        }
+    }
+}
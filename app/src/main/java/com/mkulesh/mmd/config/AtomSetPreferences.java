@@ -0,0 +1,177 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.config;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+
+import com.mkulesh.mmd.R;
+import com.mkulesh.mmd.model.AtomSet;
+import com.mkulesh.mmd.model.Constants.BoundaryConditionType;
+import com.mkulesh.mmd.model.Constants.EnergyNormType;
+import com.mkulesh.mmd.model.Constants.PotentialType;
+import com.mkulesh.mmd.model.Constants.SolverType;
+import com.mkulesh.mmd.model.Constants.ThermostatType;
+import com.mkulesh.mmd.model.PhysicalArea;
+import com.mkulesh.mmd.utils.CompatUtils;
+import com.mkulesh.mmd.utils.ViewUtils;
+
+import androidx.preference.PreferenceManager;
+
+/**
+ * Class that transfers the parameters of an atom set from and into shared preferences
+ */
+public class AtomSetPreferences
+{
+    /**
+     * Procedure reads the atom parameters from shared preferences
+     */
+    public static void read(AtomSet atomSet, Context context)
+    {
+        ViewUtils.Debug(atomSet, "reading parameters from shared preferences");
+
+        Resources resources = context.getResources();
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(context);
+
+        // Potential
+        atomSet.potential.setType(PotentialType.valueOf(pref.getString(SettingsActivity.KEY_POTENTIAL,
+                resources.getString(R.string.pref_potential_default))));
+
+        // Physical area
+        final PhysicalArea area = atomSet.getArea();
+        area.set(
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_AREA_MIN_X,
+                        resources.getString(R.string.pref_area_min_x_default))),
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_AREA_MAX_X,
+                        resources.getString(R.string.pref_area_max_x_default))),
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_AREA_MIN_Y,
+                        resources.getString(R.string.pref_area_min_y_default))),
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_AREA_MAX_Y,
+                        resources.getString(R.string.pref_area_max_y_default))));
+        final PhysicalArea viewPort = atomSet.getVewPort();
+        viewPort.assign(area);
+        viewPort.scale(
+                area,
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_AREA_ZOOM,
+                        resources.getString(R.string.pref_area_zoom_default))),
+                Double.parseDouble(resources.getString(R.string.pref_area_zoom_max)),
+                pref.getFloat(SettingsActivity.KEY_AREA_SCROLL_X, 0),
+                pref.getFloat(SettingsActivity.KEY_AREA_SCROLL_Y, 0));
+
+        // Boundary condition: it shall be known before the atoms are filled
+        atomSet.setBoundaryCondition(BoundaryConditionType.valueOf(pref.getString(
+                SettingsActivity.KEY_BOUND_CONDITION, resources.getString(R.string.pref_bound_condition_default))));
+
+        // Initial layout
+        if (pref.getBoolean(SettingsActivity.KEY_REBUILD, true) || atomSet.getAtomsNumber() == 0)
+        {
+            int methodIndex = SettingsActivity.getListPreferenceIndex(context, SettingsActivity.KEY_FILL_METHODS,
+                    R.string.pref_fill_methods_default, R.array.pref_fill_methods_values);
+            int nX = Integer.valueOf(pref.getString(SettingsActivity.KEY_GRID_HOR_DIMENSION,
+                    resources.getString(R.string.pref_grid_hor_dimension_default)));
+            int nY = Integer.valueOf(pref.getString(SettingsActivity.KEY_GRID_VER_DIMENSION,
+                    resources.getString(R.string.pref_grid_ver_dimension_default)));
+            atomSet.fillGridCoordinates(nX, nY, methodIndex == 0);
+        }
+
+        atomSet.atomRadius = Double.parseDouble(pref.getString(SettingsActivity.KEY_ATOM_RADIUS,
+                resources.getString(R.string.pref_atom_radius_default)));
+        atomSet.setAtomMass(Double.parseDouble(pref.getString(SettingsActivity.KEY_ATOM_MASS,
+                resources.getString(R.string.pref_atom_mass_default))));
+        atomSet.atomImage = pref
+                .getString(SettingsActivity.KEY_ATOM_SKIN, resources.getString(R.string.pref_atom_skin_default));
+        atomSet.gravity = Double.parseDouble(pref.getString(SettingsActivity.KEY_BOUND_GRAVITY,
+                resources.getString(R.string.pref_bound_gravity_default)));
+        atomSet.thermalChange = Double.parseDouble(pref.getString(SettingsActivity.KEY_BOUND_THERMAL_CHANGE,
+                resources.getString(R.string.pref_bound_thermal_change_default)));
+        atomSet.timeStep = Double.parseDouble(pref.getString(SettingsActivity.KEY_CALC_TIME_STEP,
+                resources.getString(R.string.pref_calc_time_step_default)));
+        atomSet.setMaxStepDisplacement(Double.parseDouble(pref.getString(SettingsActivity.KEY_CALC_STEP_DISPLACEMENT,
+                resources.getString(R.string.pref_calc_step_displacement_default))));
+        atomSet.setNeighbourSkin(Double.parseDouble(pref.getString(SettingsActivity.KEY_CALC_NEIGHBOUR_SKIN,
+                resources.getString(R.string.pref_calc_neighbour_skin_default))));
+        atomSet.potential.setTabulation(
+                Integer.parseInt(pref.getString(SettingsActivity.KEY_CALC_POTENTIAL_TABLE,
+                        resources.getString(R.string.pref_calc_potential_table_default))),
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_CALC_POTENTIAL_TABLE_ERROR,
+                        resources.getString(R.string.pref_calc_potential_table_error_default))));
+        atomSet.setSubsteps(Integer.parseInt(pref.getString(SettingsActivity.KEY_CALC_SUBSTEPS,
+                resources.getString(R.string.pref_calc_substeps_default))));
+        atomSet.setThreadsNumber(Integer.parseInt(pref.getString(SettingsActivity.KEY_CALC_THREADS,
+                resources.getString(R.string.pref_calc_threads_default))));
+        atomSet.setSolver(
+                SolverType.valueOf(pref.getString(SettingsActivity.KEY_CALC_SOLVER,
+                        resources.getString(R.string.pref_calc_solver_default))),
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_CALC_RESPA_SPLIT,
+                        resources.getString(R.string.pref_calc_respa_split_default))),
+                Integer.parseInt(pref.getString(SettingsActivity.KEY_CALC_RESPA_INNER_STEPS,
+                        resources.getString(R.string.pref_calc_respa_inner_steps_default))));
+        atomSet.setThermostat(
+                ThermostatType.valueOf(pref.getString(SettingsActivity.KEY_CALC_THERMOSTAT,
+                        resources.getString(R.string.pref_calc_thermostat_default))),
+                Double.parseDouble(pref.getString(SettingsActivity.KEY_CALC_THERMOSTAT_TIME,
+                        resources.getString(R.string.pref_calc_thermostat_time_default))));
+
+        // temperature shall be filled after atomMass is set since atom mass is
+        // used for temperature calculations
+        atomSet.fillTemperature(Double.parseDouble(pref.getString(SettingsActivity.KEY_INIT_TEMPERATURE,
+                resources.getString(R.string.pref_init_temperature_default))));
+        {
+            int energyNormIndex = SettingsActivity.getListPreferenceIndex(context, SettingsActivity.KEY_ENERGY_NORM,
+                    R.string.pref_energy_norm_default, R.array.pref_energy_norm_values);
+            if (energyNormIndex >= 0 && energyNormIndex < EnergyNormType.values().length)
+            {
+                atomSet.energyNorm = EnergyNormType.values()[energyNormIndex];
+            }
+        }
+
+        atomSet.updateParameters();
+    }
+
+    /**
+     * Procedure writes the atom parameters into shared preferences
+     */
+    public static void write(AtomSet atomSet, Context context)
+    {
+        ViewUtils.Debug(atomSet, "writing parameters into shared preferences");
+
+        Resources r = context.getResources();
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(context);
+        SharedPreferences.Editor prefEditor = pref.edit();
+        final PhysicalArea viewPort = atomSet.getVewPort();
+        prefEditor.putString(SettingsActivity.KEY_AREA_ZOOM,
+                CompatUtils.getDecimalFormat(r.getString(R.string.pref_area_zoom_format)).format(viewPort.getZoom()));
+        prefEditor.putFloat(SettingsActivity.KEY_AREA_SCROLL_X, (float) viewPort.getFocus().x);
+        prefEditor.putFloat(SettingsActivity.KEY_AREA_SCROLL_Y, (float) viewPort.getFocus().y);
+        prefEditor.putString(SettingsActivity.KEY_BOUND_GRAVITY,
+                CompatUtils.getDecimalFormat(r.getString(R.string.pref_bound_gravity_value_format))
+                        .format(atomSet.gravity));
+        prefEditor.putString(
+                SettingsActivity.KEY_BOUND_THERMAL_CHANGE,
+                CompatUtils.getDecimalFormat(r.getString(R.string.pref_bound_thermal_change_value_format)).format(
+                        atomSet.thermalChange));
+        prefEditor.putString(SettingsActivity.KEY_CALC_TIME_STEP,
+                CompatUtils.getDecimalFormat(r.getString(R.string.pref_calc_time_step_value_format))
+                        .format(atomSet.timeStep));
+        prefEditor.putString(SettingsActivity.KEY_INIT_TEMPERATURE, String.valueOf((int) atomSet.temperature));
+        TypedArray energyNormValues = r.obtainTypedArray(R.array.pref_energy_norm_values);
+        prefEditor.putString(SettingsActivity.KEY_ENERGY_NORM,
+                energyNormValues.getString(atomSet.energyNorm.value()));
+        energyNormValues.recycle();
+        prefEditor.commit();
+    }
+}
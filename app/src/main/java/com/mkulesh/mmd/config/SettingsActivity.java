@@ -55,6 +55,7 @@ public class SettingsActivity extends AppCompatPreferenceActivity
     public static final String KEY_AREA_SCROLL_Y = "pref_area_scroll_y";
 
     // Initial and boundary condition
+    public static final String KEY_BOUND_CONDITION = "pref_bound_condition";
     public static final String KEY_BOUND_GRAVITY = "pref_bound_gravity";
     public static final String KEY_BOUND_THERMAL_CHANGE = "pref_bound_thermal_change";
     public static final String KEY_INIT_TEMPERATURE = "pref_init_temperature";
@@ -68,9 +69,21 @@ public class SettingsActivity extends AppCompatPreferenceActivity
 
     // Calculation parameters
     public static final String KEY_CALC_TIME_STEP = "pref_calc_time_step";
+    public static final String KEY_CALC_STEP_DISPLACEMENT = "pref_calc_step_displacement";
+    public static final String KEY_CALC_NEIGHBOUR_SKIN = "pref_calc_neighbour_skin";
+    public static final String KEY_CALC_POTENTIAL_TABLE = "pref_calc_potential_table";
+    public static final String KEY_CALC_POTENTIAL_TABLE_ERROR = "pref_calc_potential_table_error";
+    public static final String KEY_CALC_THREADS = "pref_calc_threads";
+    public static final String KEY_CALC_SUBSTEPS = "pref_calc_substeps";
+    public static final String KEY_CALC_SOLVER = "pref_calc_solver";
+    public static final String KEY_CALC_RESPA_SPLIT = "pref_calc_respa_split";
+    public static final String KEY_CALC_RESPA_INNER_STEPS = "pref_calc_respa_inner_steps";
+    public static final String KEY_CALC_THERMOSTAT = "pref_calc_thermostat";
+    public static final String KEY_CALC_THERMOSTAT_TIME = "pref_calc_thermostat_time";
 
     // Design
     public static final String KEY_SYSTEM_WALLPAPER = "pref_system_wallpaper";
+    public static final String KEY_INFO_REFRESH_INTERVAL = "pref_info_refresh_interval";
 
     @Override
     protected void onCreate(Bundle savedInstanceState)
@@ -115,6 +128,7 @@ public class SettingsActivity extends AppCompatPreferenceActivity
             bindPreferenceSummaryToValue(KEY_AREA_MAX_Y);
             bindPreferenceSummaryToValue(KEY_AREA_ZOOM);
 
+            bindPreferenceSummaryToValue(KEY_BOUND_CONDITION);
             bindPreferenceSummaryToValue(KEY_BOUND_GRAVITY);
             bindPreferenceSummaryToValue(KEY_BOUND_THERMAL_CHANGE);
             bindPreferenceSummaryToValue(KEY_INIT_TEMPERATURE);
@@ -126,6 +140,18 @@ public class SettingsActivity extends AppCompatPreferenceActivity
             bindPreferenceSummaryToValue(KEY_ATOM_SKIN);
 
             bindPreferenceSummaryToValue(KEY_CALC_TIME_STEP);
+            bindPreferenceSummaryToValue(KEY_CALC_STEP_DISPLACEMENT);
+            bindPreferenceSummaryToValue(KEY_CALC_NEIGHBOUR_SKIN);
+            bindPreferenceSummaryToValue(KEY_CALC_POTENTIAL_TABLE);
+            bindPreferenceSummaryToValue(KEY_CALC_POTENTIAL_TABLE_ERROR);
+            bindPreferenceSummaryToValue(KEY_CALC_THREADS);
+            bindPreferenceSummaryToValue(KEY_CALC_SUBSTEPS);
+            bindPreferenceSummaryToValue(KEY_CALC_SOLVER);
+            bindPreferenceSummaryToValue(KEY_CALC_RESPA_SPLIT);
+            bindPreferenceSummaryToValue(KEY_CALC_RESPA_INNER_STEPS);
+            bindPreferenceSummaryToValue(KEY_CALC_THERMOSTAT);
+            bindPreferenceSummaryToValue(KEY_CALC_THERMOSTAT_TIME);
+            bindPreferenceSummaryToValue(KEY_INFO_REFRESH_INTERVAL);
             // the method list must be initialized after number field
             // in order to update their visibility
             bindPreferenceSummaryToValue(KEY_FILL_METHODS);
@@ -226,6 +252,62 @@ public class SettingsActivity extends AppCompatPreferenceActivity
                 double max = Double.parseDouble(getResources().getString(R.string.pref_calc_time_step_max));
                 return !(dValue < min) && !(dValue > max);
             }
+            if (preference.getKey().equals(KEY_CALC_STEP_DISPLACEMENT))
+            {
+                double max = Double.parseDouble(getResources().getString(R.string.pref_calc_step_displacement_max));
+                return !(dValue < 0.0) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_NEIGHBOUR_SKIN))
+            {
+                double min = Double.parseDouble(getResources().getString(R.string.pref_calc_neighbour_skin_min));
+                double max = Double.parseDouble(getResources().getString(R.string.pref_calc_neighbour_skin_max));
+                return !(dValue < min) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_POTENTIAL_TABLE))
+            {
+                int max = Integer.parseInt(getResources().getString(R.string.pref_calc_potential_table_max));
+                return dValue == Math.rint(dValue) && !(dValue < 0) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_POTENTIAL_TABLE_ERROR))
+            {
+                double min = Double.parseDouble(getResources().getString(R.string.pref_calc_potential_table_error_min));
+                double max = Double.parseDouble(getResources().getString(R.string.pref_calc_potential_table_error_max));
+                return !(dValue < min) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_THREADS))
+            {
+                int max = Integer.parseInt(getResources().getString(R.string.pref_calc_threads_max));
+                return dValue == Math.rint(dValue) && !(dValue < 0) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_SUBSTEPS))
+            {
+                int max = Integer.parseInt(getResources().getString(R.string.pref_calc_substeps_max));
+                return dValue == Math.rint(dValue) && !(dValue < 0) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_RESPA_SPLIT))
+            {
+                double min = Double.parseDouble(getResources().getString(R.string.pref_calc_respa_split_min));
+                double max = Double.parseDouble(getResources().getString(R.string.pref_calc_respa_split_max));
+                return !(dValue < min) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_RESPA_INNER_STEPS))
+            {
+                int min = Integer.parseInt(getResources().getString(R.string.pref_calc_respa_inner_steps_min));
+                int max = Integer.parseInt(getResources().getString(R.string.pref_calc_respa_inner_steps_max));
+                return dValue == Math.rint(dValue) && !(dValue < min) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_CALC_THERMOSTAT_TIME))
+            {
+                double min = Double.parseDouble(getResources().getString(R.string.pref_calc_thermostat_time_min));
+                double max = Double.parseDouble(getResources().getString(R.string.pref_calc_thermostat_time_max));
+                return !(dValue < min) && !(dValue > max);
+            }
+            if (preference.getKey().equals(KEY_INFO_REFRESH_INTERVAL))
+            {
+                int min = Integer.parseInt(getResources().getString(R.string.pref_info_refresh_interval_min));
+                int max = Integer.parseInt(getResources().getString(R.string.pref_info_refresh_interval_max));
+                return dValue == Math.rint(dValue) && !(dValue < min) && !(dValue > max);
+            }
             return true;
         }
 
@@ -0,0 +1,160 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.fragments;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.Shader;
+
+import com.mkulesh.mmd.model.AtomSnapshot;
+import com.mkulesh.mmd.model.Vector2D;
+import com.mkulesh.mmd.utils.ViewUtils;
+
+/**
+ * Class that draws all atoms of a snapshot in one draw call.
+ *
+ * The atom image is pre-rendered at a fixed set of rotation angles into one atlas bitmap. Each atom is then a
+ * textured square made of two triangles that refers to the atlas cell with the nearest angle, and all atoms are
+ * emitted by a single Canvas.drawVertices() call. The cost per atom is therefore a few floats instead of a matrix
+ * and a bitmap draw call.
+ */
+class AtomAtlas
+{
+    // Number of pre-rendered rotation angles and number of atlas cells in a row
+    private static final int ANGLES = 36;
+    private static final int COLUMNS = 6;
+
+    // The atlas is not created if it would exceed this size; the atoms are drawn one by one in this case
+    private static final int MAX_ATLAS_SIZE = 2048;
+
+    // Six vertices (two triangles) with two coordinates per atom
+    private static final int FLOATS_PER_ATOM = 12;
+
+    private Bitmap atlas = null;
+    private int cellSize = 0;
+    private final Paint paint = new Paint();
+    private float[] vertices = new float[0];
+    private float[] textures = new float[0];
+    private final Vector2D coordinate = new Vector2D();
+    private final Point p = new Point();
+
+    /**
+     * Procedure creates the atlas for the given atom image. Returns false if the image is too large for an atlas
+     */
+    boolean create(Bitmap image)
+    {
+        recycle();
+        // a cell shall contain the image rotated by any angle, with a transparent border between the cells
+        final int size = Math.max(image.getWidth(), image.getHeight());
+        cellSize = (int) Math.ceil(size * Math.sqrt(2.0)) + 2;
+        final int rows = (ANGLES + COLUMNS - 1) / COLUMNS;
+        if (cellSize * Math.max(COLUMNS, rows) > MAX_ATLAS_SIZE)
+        {
+            ViewUtils.Debug(this, "atom image is too large for atlas: " + size);
+            return false;
+        }
+
+        atlas = Bitmap.createBitmap(cellSize * COLUMNS, cellSize * rows, Bitmap.Config.ARGB_8888);
+        final Canvas c = new Canvas(atlas);
+        final Paint imagePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        for (int k = 0; k < ANGLES; k++)
+        {
+            c.save();
+            c.translate((k % COLUMNS) * cellSize + cellSize / 2.0f, (k / COLUMNS) * cellSize + cellSize / 2.0f);
+            c.rotate(k * 360.0f / ANGLES);
+            c.drawBitmap(image, -image.getWidth() / 2.0f, -image.getHeight() / 2.0f, imagePaint);
+            c.restore();
+        }
+        paint.setShader(new BitmapShader(atlas, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+        ViewUtils.Debug(this, "created atom atlas " + atlas.getWidth() + "x" + atlas.getHeight());
+        return true;
+    }
+
+    /**
+     * Procedure releases the atlas bitmap
+     */
+    void recycle()
+    {
+        if (atlas != null)
+        {
+            paint.setShader(null);
+            atlas.recycle();
+            atlas = null;
+        }
+    }
+
+    /**
+     * Procedure draws the atoms of the snapshot with given indices into the given screen rectangle
+     */
+    void draw(Canvas c, AtomSnapshot set, int[] indices, int count, Rect rect, boolean rotateAtom)
+    {
+        if (atlas == null || count == 0)
+        {
+            return;
+        }
+        final int n = count * FLOATS_PER_ATOM;
+        if (vertices.length < n)
+        {
+            vertices = new float[n];
+            textures = new float[n];
+        }
+
+        final float half = cellSize / 2.0f;
+        final double angleStep = 2.0 * Math.PI / ANGLES;
+        for (int j = 0, v = 0; j < count; j++, v += FLOATS_PER_ATOM)
+        {
+            final int i = indices[j];
+            coordinate.set(set.x[i], set.y[i]);
+            ViewUtils.toScreenPoint(set.viewPort, coordinate, rect, p);
+            int k = 0;
+            if (rotateAtom)
+            {
+                k = (int) Math.round(Math.atan2(set.vectorY[i], set.vectorX[i]) / angleStep);
+                if (k < 0)
+                {
+                    k += ANGLES;
+                }
+                k %= ANGLES;
+            }
+            putSquare(vertices, v, p.x - half, p.y - half, cellSize);
+            putSquare(textures, v, (k % COLUMNS) * cellSize, (k / COLUMNS) * cellSize, cellSize);
+        }
+        c.drawVertices(Canvas.VertexMode.TRIANGLES, n, vertices, 0, textures, 0, null, 0, null, 0, 0, paint);
+    }
+
+    /**
+     * Procedure stores two triangles that form a square with given left-top corner and size
+     */
+    private static void putSquare(float[] dest, int offset, float left, float top, float size)
+    {
+        final float right = left + size, bottom = top + size;
+        dest[offset] = left;
+        dest[offset + 1] = top;
+        dest[offset + 2] = right;
+        dest[offset + 3] = top;
+        dest[offset + 4] = right;
+        dest[offset + 5] = bottom;
+        dest[offset + 6] = left;
+        dest[offset + 7] = top;
+        dest[offset + 8] = right;
+        dest[offset + 9] = bottom;
+        dest[offset + 10] = left;
+        dest[offset + 11] = bottom;
+    }
+}
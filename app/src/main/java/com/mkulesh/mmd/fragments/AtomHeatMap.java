@@ -0,0 +1,120 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.fragments;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import com.mkulesh.mmd.model.AtomSnapshot;
+import com.mkulesh.mmd.model.Vector2D;
+import com.mkulesh.mmd.utils.ViewUtils;
+
+import java.util.Arrays;
+
+/**
+ * Class that draws the atoms as a density map.
+ *
+ * This mode is used if an atom is smaller than a couple of pixels on the screen. The atoms are counted in the
+ * cells of a coarse grid, the counts are converted into colors from blue (low density) to red (high density), and
+ * the resulting pixel buffer is drawn stretched over the screen rectangle by a single drawBitmap() call.
+ */
+class AtomHeatMap
+{
+    // Size of a heat map cell in screen pixels
+    private static final int CELL_SIZE = 4;
+
+    // Number of colors in the palette; the color with index 0 is transparent
+    private static final int COLORS = 256;
+
+    private Bitmap bitmap = null;
+    private int width = 0, height = 0;
+    private int[] counts = new int[0];
+    private int[] pixels = new int[0];
+    private final int[] palette = new int[COLORS];
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Vector2D coordinate = new Vector2D();
+    private final Point p = new Point();
+
+    AtomHeatMap()
+    {
+        final float[] hsv = new float[] { 0.0f, 1.0f, 1.0f };
+        palette[0] = Color.TRANSPARENT;
+        for (int i = 1; i < COLORS; i++)
+        {
+            hsv[0] = 240.0f * (COLORS - 1 - i) / (COLORS - 2);
+            palette[i] = Color.HSVToColor(hsv);
+        }
+    }
+
+    /**
+     * Procedure releases the heat map bitmap
+     */
+    void recycle()
+    {
+        if (bitmap != null)
+        {
+            bitmap.recycle();
+            bitmap = null;
+        }
+    }
+
+    /**
+     * Procedure draws the density of the atoms with given indices into the given screen rectangle
+     */
+    void draw(Canvas c, AtomSnapshot set, int[] indices, int count, Rect rect)
+    {
+        final int w = Math.max(1, rect.width() / CELL_SIZE);
+        final int h = Math.max(1, rect.height() / CELL_SIZE);
+        if (bitmap == null || w != width || h != height)
+        {
+            ViewUtils.Debug(this, "creating heat map " + w + "x" + h);
+            recycle();
+            width = w;
+            height = h;
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            counts = new int[width * height];
+            pixels = new int[width * height];
+        }
+
+        // count the atoms in the cells
+        Arrays.fill(counts, 0);
+        int maxCount = 0;
+        for (int j = 0; j < count; j++)
+        {
+            final int i = indices[j];
+            coordinate.set(set.x[i], set.y[i]);
+            ViewUtils.toScreenPoint(set.viewPort, coordinate, rect, p);
+            final int cx = (p.x - rect.left) / CELL_SIZE;
+            final int cy = (p.y - rect.top) / CELL_SIZE;
+            if (cx >= 0 && cx < width && cy >= 0 && cy < height)
+            {
+                maxCount = Math.max(maxCount, ++counts[cy * width + cx]);
+            }
+        }
+
+        // convert the counts into colors
+        for (int k = 0; k < counts.length; k++)
+        {
+            pixels[k] = (counts[k] == 0) ? palette[0] : palette[1 + (counts[k] - 1) * (COLORS - 2) / Math.max(1,
+                    maxCount - 1)];
+        }
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+        c.drawBitmap(bitmap, null, rect, paint);
+    }
+}
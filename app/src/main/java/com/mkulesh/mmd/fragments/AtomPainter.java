@@ -25,6 +25,9 @@ import android.graphics.Paint;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.SurfaceHolder;
 import android.view.ViewGroup;
@@ -34,23 +37,24 @@ import android.widget.TextView;
 import com.mkulesh.mmd.R;
 import com.mkulesh.mmd.config.SettingsActivity;
 import com.mkulesh.mmd.model.Atom;
-import com.mkulesh.mmd.model.AtomSet;
+import com.mkulesh.mmd.model.AtomSnapshot;
 import com.mkulesh.mmd.model.Vector2D;
+import com.mkulesh.mmd.utils.FormattedText;
 import com.mkulesh.mmd.utils.SVGUtils;
-import com.mkulesh.mmd.utils.ThreadContol;
 import com.mkulesh.mmd.utils.ViewUtils;
 
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-
 import androidx.preference.PreferenceManager;
 
 /**
- * Class that implements painting thread
+ * Class that implements painting thread.
+ *
+ * The painting thread is a looper thread that receives the display vsync via Choreographer frame callbacks. A frame
+ * callback is only requested when the calculation thread publishes a snapshot, and it is repeated at the next vsync
+ * as long as a snapshot is waiting, for example if the frame rate limit does not allow to paint it yet. The newest
+ * snapshot is painted; older snapshots that were not painted in time are skipped. The thread sleeps while no
+ * snapshot is waiting, for example if the experiment is paused.
  */
-public class AtomPainter implements Runnable
+public class AtomPainter implements Choreographer.FrameCallback
 {
 
     /**
@@ -80,18 +84,34 @@ public class AtomPainter implements Runnable
     private final SurfaceHolder holder;
     private final WallpaperOffsets wallpaperOffsets = new WallpaperOffsets();
 
-    // synchronization with calculation thread
-    private final BlockingQueue<AtomSet> waitingQueue;
-    private final BlockingQueue<AtomSet> immediateQueue;
+    // synchronization with calculation thread: the newest snapshot that is not painted yet, the handler of the
+    // painting thread and the flag whether a frame callback is already requested
+    private final Object snapshotLock = new Object();
+    private AtomSnapshot pendingSnapshot = null;
+    private Handler handler = null;
+    private boolean frameRequested = false;
 
     // thread implementation
-    private Thread thread = null;
-    private final ThreadContol threadControl = new ThreadContol();
+    private HandlerThread thread = null;
+    private volatile boolean running = false;
+    private final Runnable frameRequest = new Runnable()
+    {
+        public void run()
+        {
+            Choreographer.getInstance().postFrameCallback(AtomPainter.this);
+        }
+    };
 
-    // timing statistic and fps control
+    // timing statistic and fps control, all times are in nanoseconds of System.nanoTime()
     private static final float maxFps = 25.0f;
+    private static final long minFrameInterval = (long) (1.0e9f / maxFps);
+    private static final long frameTolerance = 8000000L; // a half of the vsync period at 60 Hz
+    private long nextFrameTime = 0;
+    private long lastFrameTime = 0;
+    private float fps = 0f;
     private static final int maxLastDurations = 10;
-    private final ArrayList<Long> lastDurations = new ArrayList<>();
+    private final long[] lastDurations = new long[maxLastDurations]; // ring buffer
+    private int lastDurationsNumber = 0, lastDurationsIndex = 0;
 
     private int zoomPanelOffset = 0;
 
@@ -103,8 +123,14 @@ public class AtomPainter implements Runnable
         super();
         this.holder = holder;
         this.context = context;
-        waitingQueue = new ArrayBlockingQueue<>(1, true);
-        immediateQueue = new ArrayBlockingQueue<>(100, true);
+    }
+
+    /**
+     * Procedure returns the type of atom vector used to orient atom images
+     */
+    Atom.VectorType getVectorType()
+    {
+        return vectorType;
     }
 
     /**
@@ -112,7 +138,10 @@ public class AtomPainter implements Runnable
      */
     void enableInfoPanel()
     {
-        infoPanel = new InfoPanel(context);
+        final long refreshInterval = Long.parseLong(PreferenceManager.getDefaultSharedPreferences(context).getString(
+                SettingsActivity.KEY_INFO_REFRESH_INTERVAL,
+                context.getResources().getString(R.string.pref_info_refresh_interval_default)));
+        infoPanel = new InfoPanel(context, refreshInterval * 1000000L);
         zoomPanel = new ZoomPanel();
         zoomPanelOffset = context.getResources().getDimensionPixelOffset(R.dimen.activity_flb_margin);
     }
@@ -152,9 +181,19 @@ public class AtomPainter implements Runnable
     {
         if (thread == null)
         {
-            thread = new Thread(this, this.getClass().getSimpleName());
-            threadControl.setInterrupted(false);
+            running = true;
+            nextFrameTime = 0;
+            lastFrameTime = 0;
+            lastDurationsNumber = 0;
+            lastDurationsIndex = 0;
+            thread = new HandlerThread(this.getClass().getSimpleName());
             thread.start();
+            synchronized (snapshotLock)
+            {
+                handler = new Handler(thread.getLooper());
+                frameRequested = false;
+            }
+            ViewUtils.Debug(this, "(pid: " + thread.getId() + "): started");
         }
     }
 
@@ -165,73 +204,99 @@ public class AtomPainter implements Runnable
     {
         if (thread != null)
         {
-            threadControl.setInterrupted(true);
-            thread.interrupt();
+            running = false;
+            // the looper quits without processing further vsync events
+            thread.quit();
             thread = null;
+            synchronized (snapshotLock)
+            {
+                if (pendingSnapshot != null)
+                {
+                    pendingSnapshot.recycle();
+                    pendingSnapshot = null;
+                }
+                handler = null;
+                frameRequested = false;
+                snapshotLock.notifyAll();
+            }
+            ViewUtils.Debug(this, "stopped");
         }
     }
 
+    /**
+     * Procedure is called by the Choreographer at the vsync of the display after a frame callback was requested
+     */
     @Override
-    public void run()
+    public void doFrame(long frameTimeNanos)
     {
-        ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): started");
-
-        while (!Thread.currentThread().isInterrupted())
+        if (!running)
         {
-            try
+            return;
+        }
+        if (frameTimeNanos >= nextFrameTime - frameTolerance && holder.getSurface().isValid())
+        {
+            AtomSnapshot set;
+            synchronized (snapshotLock)
             {
-                synchronized (threadControl)
-                {
-                    if (threadControl.isInterrupted())
-                    {
-                        ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): interrupted");
-                        break;
-                    }
-                }
-
-                AtomSet a1 = waitingQueue.peek();
-                if (a1 != null)
+                set = pendingSnapshot;
+                pendingSnapshot = null;
+                snapshotLock.notifyAll();
+            }
+            if (set != null)
+            {
+                // the next frame is due one frame interval later; after a stall, the schedule starts anew
+                nextFrameTime = (nextFrameTime < frameTimeNanos - minFrameInterval) ?
+                        frameTimeNanos + minFrameInterval : nextFrameTime + minFrameInterval;
+                updateFps(frameTimeNanos);
+                try
                 {
-                    draw(a1);
-                    waitingQueue.poll();
+                    draw(set);
                 }
-
-                AtomSet a2 = immediateQueue.peek();
-                if (a2 != null)
+                catch (Exception ex)
                 {
-                    draw(a2);
-                    immediateQueue.poll();
+                    ViewUtils.Debug(this, "error at painting: " + ex.getLocalizedMessage());
                 }
-            }
-            catch (Exception ex)
-            {
-                break;
+                set.recycle();
             }
         }
 
-        waitingQueue.clear();
-        immediateQueue.clear();
-        ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): stopped");
+        // the callback is repeated at the next vsync only if a snapshot is still waiting
+        final boolean isWaiting;
+        synchronized (snapshotLock)
+        {
+            frameRequested = running && pendingSnapshot != null;
+            isWaiting = frameRequested;
+        }
+        if (isWaiting)
+        {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
     }
 
     /**
-     * Procedure paints atoms field
+     * Procedure updates the frame rate using the time between two painted frames
      */
-    private void draw(AtomSet set)
+    private void updateFps(long frameTimeNanos)
     {
-        long startTime = Calendar.getInstance().getTimeInMillis();
-        float fps = 0f;
-
-        // checks if the lockCanvas() method will be success,and if not,
-        // will check this statement again
-        //noinspection StatementWithEmptyBody
-        while (!holder.getSurface().isValid())
+        if (lastFrameTime != 0)
         {
-            // empty
+            long averagedDuration = getAveragedDuration((frameTimeNanos - lastFrameTime) / 1000000L);
+            fps = (averagedDuration != 0) ? 1000f / averagedDuration : 0;
         }
+        lastFrameTime = frameTimeNanos;
+    }
 
+    /**
+     * Procedure paints atoms field
+     */
+    private void draw(AtomSnapshot set)
+    {
         // Start editing pixels in this surface
         Canvas c = holder.lockCanvas();
+        if (c == null)
+        {
+            return;
+        }
 
         // paint a background color
         if (backgroudMode != BackgroudMode.NONE)
@@ -247,16 +312,13 @@ public class AtomPainter implements Runnable
             c.drawColor(android.graphics.Color.TRANSPARENT, android.graphics.PorterDuff.Mode.CLEAR);
         }
 
-        synchronized (threadControl)
+        if (!running || set == null)
         {
-            if (threadControl.isInterrupted() || set == null)
-            {
-                holder.unlockCanvasAndPost(c);
-                return;
-            }
+            holder.unlockCanvasAndPost(c);
+            return;
         }
 
-        if (set.getAtoms().isEmpty())
+        if (set.getAtomsNumber() == 0)
         {
             // if atom set is empty, draw the info panel only
             if (infoPanel != null)
@@ -282,27 +344,6 @@ public class AtomPainter implements Runnable
                 zoomPanel.draw(c, set);
             }
 
-            // calculate fps and delay thread is necessary
-            {
-                long maxStepDuration = (long) (1000f / maxFps);
-                long t1 = Calendar.getInstance().getTimeInMillis() - startTime;
-                if (t1 < maxStepDuration)
-                {
-                    try
-                    {
-                        Thread.sleep(maxStepDuration - t1);
-                    }
-                    catch (InterruptedException e)
-                    {
-                        e.printStackTrace();
-                    }
-                    t1 = Calendar.getInstance().getTimeInMillis() - startTime;
-                }
-                long duration = Math.max(set.getCalculationTime(), t1);
-                long averagedDuration = getAveragedDuration(duration);
-                fps = (averagedDuration != 0) ? 1000f / averagedDuration : 0;
-            }
-
             if (infoPanel != null)
             {
                 infoPanel.setRect(0, 0, c.getWidth(), 0);
@@ -319,54 +360,78 @@ public class AtomPainter implements Runnable
      */
     private long getAveragedDuration(long duration)
     {
+        lastDurations[lastDurationsIndex] = duration;
+        lastDurationsIndex = (lastDurationsIndex + 1) % maxLastDurations;
+        lastDurationsNumber = Math.min(lastDurationsNumber + 1, maxLastDurations);
         long retValue = 0;
-        while (lastDurations.size() >= maxLastDurations)
-        {
-            lastDurations.remove(0);
-        }
-        lastDurations.add(duration);
-        for (Long d : lastDurations)
+        for (int i = 0; i < lastDurationsNumber; i++)
         {
-            retValue += d;
+            retValue += lastDurations[i];
         }
-        return retValue / lastDurations.size();
+        return retValue / lastDurationsNumber;
     }
 
     /**
-     * Procedure waits and puts given atom into drawing queue
+     * Procedure publishes given snapshot for painting. It waits until the previously published snapshot is taken
+     * by the painting thread, so that the calculation does not run ahead of the display
      */
-    void waitAndPut(AtomSet atoms)
+    void waitAndPut(AtomSnapshot atoms)
     {
-        if (atoms == null || thread == null)
+        if (atoms == null)
         {
             return;
         }
-        try
+        synchronized (snapshotLock)
         {
-            waitingQueue.put(atoms);
-        }
-        catch (InterruptedException ex)
-        {
-            ex.printStackTrace();
+            try
+            {
+                while (running && pendingSnapshot != null)
+                {
+                    snapshotLock.wait();
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+            publish(atoms);
         }
     }
 
     /**
-     * Procedure puts given atom into drawing queue without waiting
+     * Procedure publishes given snapshot for painting without waiting. A snapshot that is not painted yet is
+     * replaced by the newer one
      */
-    void put(AtomSet atoms)
+    void put(AtomSnapshot atoms)
     {
-        if (atoms == null || thread == null)
+        if (atoms == null)
         {
             return;
         }
-        try
+        synchronized (snapshotLock)
         {
-            immediateQueue.put(atoms);
+            publish(atoms);
         }
-        catch (InterruptedException ex)
+    }
+
+    private void publish(AtomSnapshot atoms)
+    {
+        if (!running)
+        {
+            atoms.recycle();
+            return;
+        }
+        if (pendingSnapshot != null)
         {
-            ex.printStackTrace();
+            pendingSnapshot.recycle();
+        }
+        pendingSnapshot = atoms;
+
+        // the Choreographer belongs to the painting thread, so the frame callback is requested from there
+        if (!frameRequested && handler != null)
+        {
+            frameRequested = true;
+            handler.post(frameRequest);
         }
     }
 
@@ -478,12 +543,9 @@ public class AtomPainter implements Runnable
                 loadBackground(c.getWidth(), c.getHeight());
             }
 
-            synchronized (threadControl)
+            if (!running)
             {
-                if (threadControl.isInterrupted())
-                {
-                    return;
-                }
+                return;
             }
 
             final int width = c.getWidth();
@@ -514,60 +576,128 @@ public class AtomPainter implements Runnable
      */
     private class AtomPanel extends CustomPanel
     {
+        // Distance, in atom radii, by which the view port is extended before an atom is culled
+        private static final double CULLING_MARGIN = 1.5;
+
+        // Level of detail: atoms smaller than these sizes (in pixels) are drawn as points or as a heat map
+        private static final int POINTS_SIZE = 6;
+        private static final int HEAT_MAP_SIZE = 2;
 
         private double lastRadius = 0.0;
         private final Vector2D lastDim = new Vector2D();
         private String lastImage = "";
         private Bitmap image = null;
+        private int atomSize = 0; // size of the atom image in pixels
+        private final AtomAtlas atlas = new AtomAtlas();
+        private boolean useAtlas = false;
+        private final AtomHeatMap heatMap = new AtomHeatMap();
+        private float[] points = new float[0];
+        private final Paint pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private int[] visible = new int[0]; // indices of the atoms inside of the view port
+        private int visibleCount = 0;
         private final Matrix matrix = new Matrix();
         private final Point p1 = new Point();
         private final Point p2 = new Point();
         private final Paint paint = new Paint();
+        private final Vector2D coordinate = new Vector2D();
+        private final Vector2D atomVector = new Vector2D();
+        private final Vector2D vector = new Vector2D();
 
         AtomPanel()
         {
             // empty
         }
 
-        private void loadImage(AtomSet set, Rect atomsRect)
+        private void loadImage(AtomSnapshot set, Rect atomsRect)
         {
             ViewUtils.Debug(this, "loading new atom image");
 
             lastRadius = set.atomRadius;
-            lastDim.assign(set.getVewPort().getDim());
+            lastDim.assign(set.viewPort.getDim());
             lastImage = set.atomImage;
-            int atomSize = Math.min(set.getVewPort().toScreenXLength(2.0 * lastRadius, atomsRect), set.getVewPort()
-                    .toScreenYLength(2.0 * lastRadius, atomsRect));
+            atomSize = Math.min(ViewUtils.toScreenXLength(set.viewPort, 2.0 * lastRadius, atomsRect),
+                    ViewUtils.toScreenYLength(set.viewPort, 2.0 * lastRadius, atomsRect));
+            final int imageSize = Math.max(1, atomSize);
             int imageId = SVGUtils.getResourceIdFromName(lastImage, context, false);
-            image = SVGUtils.getFromResource(context.getResources(), imageId, atomSize, atomSize, Config.ARGB_8888);
+            image = SVGUtils.getFromResource(context.getResources(), imageId, imageSize, imageSize, Config.ARGB_8888);
             if (image == null)
             {
                 Bitmap orig = BitmapFactory.decodeResource(context.getResources(), R.drawable.atom_blue_gray);
-                image = Bitmap.createScaledBitmap(orig, atomSize, atomSize, false);
+                image = Bitmap.createScaledBitmap(orig, imageSize, imageSize, false);
             }
+
+            // the atlas is only needed if the atoms are drawn as images
+            if (atomSize >= POINTS_SIZE)
+            {
+                useAtlas = atlas.create(image);
+            }
+            else
+            {
+                atlas.recycle();
+                useAtlas = false;
+            }
+            if (atomSize >= HEAT_MAP_SIZE)
+            {
+                heatMap.recycle();
+            }
+
+            // points have the color of the atom image center
+            pointPaint.setColor(image.getPixel(image.getWidth() / 2, image.getHeight() / 2) | 0xFF000000);
+            pointPaint.setStrokeWidth(imageSize);
+            pointPaint.setStrokeCap(Paint.Cap.ROUND);
         }
 
-        void draw(Canvas c, AtomSet set)
+        void draw(Canvas c, AtomSnapshot set)
         {
-            if (image == null || lastRadius != set.atomRadius || !lastDim.isEqual(set.getVewPort().getDim())
+            if (image == null || lastRadius != set.atomRadius || !lastDim.isEqual(set.viewPort.getDim())
                     || lastImage == null || !lastImage.equals(set.atomImage))
             {
                 loadImage(set, rect);
             }
-            for (Atom a : set.getAtoms())
+            cullAtoms(set);
+            if (atomSize < HEAT_MAP_SIZE)
+            {
+                heatMap.draw(c, set, visible, visibleCount, rect);
+                return;
+            }
+            if (atomSize < POINTS_SIZE)
+            {
+                drawPoints(c, set);
+                return;
+            }
+            if (useAtlas)
             {
+                atlas.draw(c, set, visible, visibleCount, rect, rotateAtom);
+                if (!drawVector)
+                {
+                    return;
+                }
+            }
+            for (int j = 0; j < visibleCount; j++)
+            {
+                final int i = visible[j];
 
-                set.getVewPort().toScreenPoint(a.coordinate, rect, p1);
-                Vector2D atomVector = a.getAttribute(vectorType);
+                coordinate.set(set.x[i], set.y[i]);
+                ViewUtils.toScreenPoint(set.viewPort, coordinate, rect, p1);
+                atomVector.set(set.vectorX[i], set.vectorY[i]);
 
                 if (drawVector)
                 {
-                    Vector2D vector = atomVector.normalize(2.0 * lastRadius).sum(a.coordinate);
-                    set.getVewPort().toScreenPoint(vector, rect, p2);
+                    final double m = atomVector.mod();
+                    vector.assign(coordinate);
+                    if (m != 0.0)
+                    {
+                        vector.addScaled(atomVector, 2.0 * lastRadius / m);
+                    }
+                    ViewUtils.toScreenPoint(set.viewPort, vector, rect, p2);
                     c.drawLine(p1.x, p1.y, p2.x, p2.y, paint);
                     drawArrowHead(c, p2, p1, 15, paint);
                 }
 
+                if (useAtlas)
+                {
+                    continue;
+                }
                 matrix.reset();
                 matrix.setTranslate(p1.x - image.getWidth() / 2, p1.y - image.getHeight() / 2);
 
@@ -581,6 +711,55 @@ public class AtomPainter implements Runnable
             }
         }
 
+        /**
+         * Procedure collects the indices of the atoms that are inside of the view port. The view port is extended
+         * by the half diagonal of the atom image, so that a partly visible atom is drawn as well
+         */
+        private void cullAtoms(AtomSnapshot set)
+        {
+            if (visible.length < set.size)
+            {
+                visible = new int[set.size];
+            }
+            final double margin = CULLING_MARGIN * set.atomRadius;
+            final double minX = set.viewPort.getMin().x - margin, maxX = set.viewPort.getMax().x + margin;
+            final double minY = set.viewPort.getMin().y - margin, maxY = set.viewPort.getMax().y + margin;
+            visibleCount = 0;
+            for (int i = 0; i < set.size; i++)
+            {
+                final double x = set.x[i], y = set.y[i];
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                {
+                    visible[visibleCount++] = i;
+                }
+            }
+        }
+
+        /**
+         * Procedure draws the visible atoms as points by a single draw call
+         */
+        private void drawPoints(Canvas c, AtomSnapshot set)
+        {
+            if (points.length < 2 * visibleCount)
+            {
+                points = new float[2 * visibleCount];
+            }
+            for (int j = 0; j < visibleCount; j++)
+            {
+                final int i = visible[j];
+                coordinate.set(set.x[i], set.y[i]);
+                ViewUtils.toScreenPoint(set.viewPort, coordinate, rect, p1);
+                points[2 * j] = p1.x;
+                points[2 * j + 1] = p1.y;
+            }
+            c.drawPoints(points, 0, 2 * visibleCount, pointPaint);
+        }
+
+        int getVisibleCount()
+        {
+            return visibleCount;
+        }
+
         @SuppressWarnings("SameParameterValue")
         private void drawArrowHead(Canvas c, Point tip, Point tail, int size, Paint paint)
         {
@@ -607,30 +786,86 @@ public class AtomPainter implements Runnable
      */
     private class InfoPanel extends CustomPanel
     {
+        private static final int FIELDS = 5;
 
         private final Paint paint = new Paint();
         private final LinearLayout layout;
+        private final FormattedText[] values = new FormattedText[FIELDS]; // newly formatted values
+        private final FormattedText[] shown = new FormattedText[FIELDS]; // values shown in the text views
+        private Bitmap overlay = null;
+        private final Canvas overlayCanvas = new Canvas();
+        private long lastRefreshTime = 0;
+
+        // The overlay is refreshed with this interval (in nanoseconds) independently of the atom frame rate
+        private final long refreshInterval;
 
-        InfoPanel(Context context)
+        InfoPanel(Context context, long refreshInterval)
         {
+            this.refreshInterval = refreshInterval;
             LayoutInflater inflater = LayoutInflater.from(context);
             final ViewGroup nullRootGroup = null;
             //noinspection ConstantConditions
             layout = (LinearLayout) inflater.inflate(R.layout.info_panel, nullRootGroup, false);
+            for (int i = 0; i < FIELDS; i++)
+            {
+                values[i] = new FormattedText();
+                shown[i] = new FormattedText();
+            }
         }
 
-        void draw(Canvas c, AtomSet set, float fps)
+        /**
+         * Procedure draws the overlay. The values are formatted with the refresh interval, and the layout is only
+         * rendered into the overlay bitmap if a value has changed at the shown precision
+         */
+        void draw(Canvas c, AtomSnapshot set, float fps)
         {
-            if (layout.getChildCount() == 4)
+            final long now = System.nanoTime();
+            if (overlay == null || overlay.getWidth() != rect.width() || now - lastRefreshTime >= refreshInterval)
             {
-                ((TextView) layout.getChildAt(0)).setText("N=" + set.getAtoms().size());
-                ((TextView) layout.getChildAt(1)).setText("E=" + String.format("%4.3e", set.eKinetic + set.ePotenz));
-                ((TextView) layout.getChildAt(2)).setText("T=" + String.format("%4.3e", set.temperature));
-                ((TextView) layout.getChildAt(3)).setText("" + String.format("%.1f fps", fps));
+                lastRefreshTime = now;
+                boolean changed = overlay == null || overlay.getWidth() != rect.width();
+                if (layout.getChildCount() == FIELDS && formatValues(set, fps))
+                {
+                    changed = true;
+                }
+                if (changed)
+                {
+                    overlay = ViewUtils.drawViewToBitmap(layout, rect, overlay, overlayCanvas);
+                }
             }
-            c.drawBitmap(ViewUtils.drawViewToBitmap(layout, rect), rect.left, rect.top, paint);
+            c.drawBitmap(overlay, rect.left, rect.top, paint);
         }
 
+        /**
+         * Procedure formats the values and passes the changed ones to the text views. Returns true if a value has
+         * changed
+         */
+        private boolean formatValues(AtomSnapshot set, float fps)
+        {
+            final int visibleCount = atomPanel.getVisibleCount();
+            values[0].clear().append("N=").append(visibleCount < set.getAtomsNumber() ? visibleCount : set
+                    .getAtomsNumber());
+            if (visibleCount < set.getAtomsNumber())
+            {
+                values[0].append('/').append(set.getAtomsNumber());
+            }
+            values[1].clear().append("E=").appendScientific(set.eKinetic + set.ePotenz, 3);
+            values[2].clear().append("T=").appendScientific(set.temperature, 3);
+            values[3].clear().append("dt=").appendFixed(set.timeStep, 2).append(" fs");
+            values[4].clear().appendFixed(fps, 1).append(" fps");
+
+            boolean changed = false;
+            for (int i = 0; i < FIELDS; i++)
+            {
+                if (!values[i].contentEquals(shown[i]))
+                {
+                    shown[i].assign(values[i]);
+                    ((TextView) layout.getChildAt(i)).setText(shown[i].getChars(), 0, shown[i].length());
+                    changed = true;
+                }
+            }
+            return changed;
+        }
     }
 
     /**
@@ -649,14 +884,14 @@ public class AtomPainter implements Runnable
             // empty
         }
 
-        void draw(Canvas c, AtomSet set)
+        void draw(Canvas c, AtomSnapshot set)
         {
-            if (!set.getVewPort().isZoomed())
+            if (!set.viewPort.isZoomed())
             {
                 return;
             }
-            set.getArea().toScreenPoint(set.getVewPort().getMin(), rect, pMin);
-            set.getArea().toScreenPoint(set.getVewPort().getMax(), rect, pMax);
+            ViewUtils.toScreenPoint(set.area, set.viewPort.getMin(), rect, pMin);
+            ViewUtils.toScreenPoint(set.area, set.viewPort.getMax(), rect, pMax);
             viewPortRect.set(pMin.x, pMax.y, pMax.x, pMin.y);
             // fill panel
             paint.setColor(ViewUtils.getThemeColor(context, R.attr.colorPrimaryDark));
@@ -21,7 +21,10 @@ import android.os.Parcelable;
 import android.view.SurfaceHolder;
 
 import com.mkulesh.mmd.R;
+import com.mkulesh.mmd.config.AtomSetParcel;
+import com.mkulesh.mmd.config.AtomSetPreferences;
 import com.mkulesh.mmd.model.AtomSet;
+import com.mkulesh.mmd.model.AtomSnapshot;
 import com.mkulesh.mmd.model.Constants.EnergyNormType;
 import com.mkulesh.mmd.model.Constants.PotentialType;
 import com.mkulesh.mmd.utils.ThreadContol;
@@ -44,7 +47,8 @@ public class Experiment implements Runnable, Parcelable
     {
         super();
         ViewUtils.Debug(this, "created from parcel");
-        atomSet = in.readParcelable(AtomSet.class.getClassLoader());
+        atomSet = new AtomSet();
+        AtomSetParcel.read(atomSet, in);
     }
 
     @Override
@@ -56,7 +60,7 @@ public class Experiment implements Runnable, Parcelable
     @Override
     public void writeToParcel(Parcel dest, int flags)
     {
-        dest.writeParcelable(atomSet, flags);
+        AtomSetParcel.write(atomSet, dest);
     }
 
     public static final Parcelable.Creator<Experiment> CREATOR = new Parcelable.Creator<Experiment>()
@@ -87,6 +91,7 @@ public class Experiment implements Runnable, Parcelable
      */
     private Context context = null;
     private final ThreadContol threadControl = new ThreadContol();
+    private final AtomSnapshot.Pool snapshotPool = new AtomSnapshot.Pool();
     private AtomPainter painter = null;
     private Thread thread = null;
 
@@ -152,7 +157,7 @@ public class Experiment implements Runnable, Parcelable
         painter.resume();
         synchronized (atomSet)
         {
-            painter.put(new AtomSet(atomSet));
+            painter.put(atomSet.takeSnapshot(snapshotPool, painter.getVectorType()));
         }
         if (thread == null)
         {
@@ -187,19 +192,16 @@ public class Experiment implements Runnable, Parcelable
             try
             {
                 // check the pause
-                synchronized (threadControl)
+                if (threadControl.isPaused())
                 {
-                    while (threadControl.isPaused())
-                    {
-                        ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): paused");
-                        threadControl.wait();
-                        ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): resumed");
-                    }
-                    if (threadControl.isInterrupted())
-                    {
-                        ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): interrupted");
-                        break;
-                    }
+                    ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): paused");
+                    threadControl.waitWhilePaused();
+                    ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): resumed");
+                }
+                if (threadControl.isInterrupted())
+                {
+                    ViewUtils.Debug(this, "(pid: " + Thread.currentThread().getId() + "): interrupted");
+                    break;
                 }
 
                 if (Thread.currentThread().isInterrupted())
@@ -207,12 +209,15 @@ public class Experiment implements Runnable, Parcelable
                     break;
                 }
 
-                AtomSet atoms;
+                AtomSnapshot snapshot = null;
                 synchronized (atomSet)
                 {
-                    atoms = atomSet.nextStep();
+                    if (atomSet.nextStep())
+                    {
+                        snapshot = atomSet.takeSnapshot(snapshotPool, painter.getVectorType());
+                    }
                 }
-                painter.waitAndPut(atoms);
+                painter.waitAndPut(snapshot);
             }
             catch (Exception ex)
             {
@@ -233,7 +238,7 @@ public class Experiment implements Runnable, Parcelable
         {
             try
             {
-                atomSet.readParameters(context);
+                AtomSetPreferences.read(atomSet, context);
             }
             catch (Exception ex)
             {
@@ -251,7 +256,7 @@ public class Experiment implements Runnable, Parcelable
         threadControl.pause();
         synchronized (atomSet)
         {
-            atomSet.writeParameters(context);
+            AtomSetPreferences.write(atomSet, context);
         }
         threadControl.resume(false);
     }
@@ -284,7 +289,7 @@ public class Experiment implements Runnable, Parcelable
         {
             ViewUtils.Debug(this, "detected rotation change: " + previousRotation + " -> " + currentRotation);
             atomSet.rotate(currentRotation, previousRotation);
-            painter.put(new AtomSet(atomSet));
+            painter.put(atomSet.takeSnapshot(snapshotPool, painter.getVectorType()));
         }
         threadControl.resume(false);
     }
@@ -395,7 +400,7 @@ public class Experiment implements Runnable, Parcelable
         synchronized (atomSet)
         {
             atomSet.scale(scaleFactor, maxScale, dx, dy);
-            painter.waitAndPut(new AtomSet(atomSet));
+            painter.waitAndPut(atomSet.takeSnapshot(snapshotPool, painter.getVectorType()));
         }
         threadControl.resume(false);
     }
@@ -0,0 +1,232 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.utils;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Class that formats text into a reusable character buffer.
+ *
+ * It is used to display frequently changing numbers without allocation of strings: the buffer only grows if a
+ * longer text is formatted. The number formats correspond to "%.Nf" and "%.Ne" of String.format(), including the
+ * decimal separator of the default locale.
+ */
+public class FormattedText
+{
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+    private static final double MAX_FIXED = 1.0e9;
+
+    private final char decimalSeparator;
+    private char[] chars = new char[32];
+    private int length = 0;
+
+    /**
+     * Default constructor. The decimal separator is taken from the locale that is active at construction time
+     */
+    public FormattedText()
+    {
+        decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+    }
+
+    /**
+     * Procedure returns the character buffer; only first length() characters are valid
+     */
+    public char[] getChars()
+    {
+        return chars;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public FormattedText clear()
+    {
+        length = 0;
+        return this;
+    }
+
+    public FormattedText append(char c)
+    {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+        return this;
+    }
+
+    public FormattedText append(String s)
+    {
+        ensureCapacity(length + s.length());
+        for (int i = 0; i < s.length(); i++)
+        {
+            chars[length++] = s.charAt(i);
+        }
+        return this;
+    }
+
+    public FormattedText append(long value)
+    {
+        if (value < 0)
+        {
+            append('-');
+            value = -value;
+        }
+        final int start = length;
+        do
+        {
+            append((char) ('0' + (value % 10)));
+            value /= 10;
+        }
+        while (value != 0);
+        // digits were appended in the reversed order
+        for (int i = start, j = length - 1; i < j; i++, j--)
+        {
+            final char c = chars[i];
+            chars[i] = chars[j];
+            chars[j] = c;
+        }
+        return this;
+    }
+
+    /**
+     * Procedure appends the value with given number of decimals (at most 9) like "%.Nf". Values that are too large
+     * for this notation are appended in the scientific notation
+     */
+    public FormattedText appendFixed(double value, int decimals)
+    {
+        if (appendSpecial(value))
+        {
+            return this;
+        }
+        if (Math.abs(value) >= MAX_FIXED)
+        {
+            return appendScientific(value, decimals);
+        }
+        final long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+        if (value < 0)
+        {
+            append('-');
+        }
+        appendDecimal(scaled, decimals);
+        return this;
+    }
+
+    /**
+     * Procedure appends the value in the scientific notation with given number of decimals (at most 9) like "%.Ne"
+     */
+    public FormattedText appendScientific(double value, int decimals)
+    {
+        if (appendSpecial(value))
+        {
+            return this;
+        }
+        if (value < 0)
+        {
+            append('-');
+            value = -value;
+        }
+        int exponent = 0;
+        long mantissa = 0;
+        if (value != 0.0)
+        {
+            exponent = (int) Math.floor(Math.log10(value));
+            mantissa = Math.round(value / Math.pow(10.0, exponent) * POWERS_OF_TEN[decimals]);
+            // rounding can give a mantissa of 10
+            if (mantissa >= 10 * POWERS_OF_TEN[decimals])
+            {
+                mantissa /= 10;
+                exponent++;
+            }
+        }
+        appendDecimal(mantissa, decimals);
+        append('e');
+        append(exponent < 0 ? '-' : '+');
+        if (Math.abs(exponent) < 10)
+        {
+            append('0');
+        }
+        append((long) Math.abs(exponent));
+        return this;
+    }
+
+    /**
+     * Procedure checks whether this text is equal to the given one
+     */
+    public boolean contentEquals(FormattedText other)
+    {
+        if (length != other.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (chars[i] != other.chars[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Assign procedure
+     */
+    public void assign(FormattedText other)
+    {
+        ensureCapacity(other.length);
+        System.arraycopy(other.chars, 0, chars, 0, other.length);
+        length = other.length;
+    }
+
+    private void appendDecimal(long scaled, int decimals)
+    {
+        append(scaled / POWERS_OF_TEN[decimals]);
+        if (decimals > 0)
+        {
+            append(decimalSeparator);
+            final long fraction = scaled % POWERS_OF_TEN[decimals];
+            for (int d = decimals - 1; d >= 0; d--)
+            {
+                append((char) ('0' + (fraction / POWERS_OF_TEN[d]) % 10));
+            }
+        }
+    }
+
+    private boolean appendSpecial(double value)
+    {
+        if (Double.isNaN(value))
+        {
+            append("NaN");
+            return true;
+        }
+        if (Double.isInfinite(value))
+        {
+            append(value > 0 ? "Infinity" : "-Infinity");
+            return true;
+        }
+        return false;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (chars.length < capacity)
+        {
+            final char[] newChars = new char[Math.max(capacity, 2 * chars.length)];
+            System.arraycopy(chars, 0, newChars, 0, length);
+            chars = newChars;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.mkulesh.mmd.utils;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Point;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.util.TypedValue;
@@ -27,6 +28,8 @@ import android.widget.Toast;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.mkulesh.mmd.R;
+import com.mkulesh.mmd.model.PhysicalArea;
+import com.mkulesh.mmd.model.Vector2D;
 
 import androidx.core.graphics.drawable.DrawableCompat;
 
@@ -39,9 +42,11 @@ public class ViewUtils
     }
 
     /**
-     * Procedure converts a given view into bitmap
+     * Procedure converts a given view into bitmap. The given bitmap is reused if it has the size of the view,
+     * otherwise it is recycled and a new one is returned. The given canvas draws into the bitmap: it shall be the
+     * canvas passed together with this bitmap before and is only re-assigned if a new bitmap is created
      */
-    public static Bitmap drawViewToBitmap(View view, Rect infoRect)
+    public static Bitmap drawViewToBitmap(View view, Rect infoRect, Bitmap bitmap, Canvas canvas)
     {
         // measure the original view size
         int measureWidth = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
@@ -58,9 +63,23 @@ public class ViewUtils
         int bitmapHeight = view.getMeasuredHeight();
         view.layout(0, 0, bitmapWidth, bitmapHeight);
 
-        // create and draw image
-        Bitmap bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
+        // create image or reuse the given one if it has the same size
+        if (bitmap == null || bitmap.getWidth() != bitmapWidth || bitmap.getHeight() != bitmapHeight)
+        {
+            final Bitmap oldBitmap = bitmap;
+            bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
+            canvas.setBitmap(bitmap);
+            if (oldBitmap != null)
+            {
+                oldBitmap.recycle();
+            }
+        }
+        else
+        {
+            bitmap.eraseColor(android.graphics.Color.TRANSPARENT);
+        }
+
+        // draw image
         Drawable bgDrawable = view.getBackground();
         if (bgDrawable != null)
             // has background drawable, then draw it on the canvas
@@ -121,4 +140,30 @@ public class ViewUtils
         context.getTheme().resolveAttribute(resId, value, true);
         return value.data;
     }
+
+    /**
+     * Converts physical coordinate within given area to screen point
+     */
+    public static void toScreenPoint(PhysicalArea area, Vector2D fp, Rect r, Point sp)
+    {
+        final Vector2D min = area.getMin(), dim = area.getDim();
+        sp.x = r.left + (int) ((double) r.width() * (fp.x - min.x) / dim.x);
+        sp.y = r.bottom - (int) ((double) r.height() * (fp.y - min.y) / dim.y);
+    }
+
+    /**
+     * Converts physical length within given area to screen length along X-axe
+     */
+    public static int toScreenXLength(PhysicalArea area, double flength, Rect r)
+    {
+        return (int) ((double) r.width() * flength / area.getDim().x);
+    }
+
+    /**
+     * Converts physical length within given area to screen length along Y-axe
+     */
+    public static int toScreenYLength(PhysicalArea area, double flength, Rect r)
+    {
+        return (int) ((double) r.height() * flength / area.getDim().y);
+    }
 }
@@ -30,6 +30,8 @@ import com.mkulesh.mmd.model.PhysicalArea;
 import com.mkulesh.mmd.model.Vector2D;
 import com.mkulesh.mmd.potentials.BasePotential;
 import com.mkulesh.mmd.utils.CompatUtils;
+import com.mkulesh.mmd.utils.SVGUtils;
+import com.mkulesh.mmd.utils.ViewUtils;
 
 import java.text.DecimalFormat;
 
@@ -122,7 +124,8 @@ public class PotentialView extends AppCompatTextView
         this.potential = potential;
         this.valueType = valueType;
         this.area.assign(area);
-        int resId = potential.getFormulaResourceId(context, valueType);
+        final String formula = potential.getFormulaResource(valueType);
+        int resId = (formula != null) ? SVGUtils.getResourceIdFromName(formula, context, false) : 0;
         try
         {
             svg = SVG.getFromResource(context.getResources(), resId);
@@ -151,9 +154,9 @@ public class PotentialView extends AppCompatTextView
         // Horizontal axe
         {
             vec.set(area.getMin().x, 0.0);
-            area.toScreenPoint(vec, rect, p1);
+            ViewUtils.toScreenPoint(area, vec, rect, p1);
             vec.set(area.getMax().x, 0.0);
-            area.toScreenPoint(vec, rect, p2);
+            ViewUtils.toScreenPoint(area, vec, rect, p2);
             canvas.drawLine(p1.x, p1.y, p2.x, p2.y, axisPaint);
             drawArrowHead(canvas, p2, p1, axisArrowSize, axisPaint);
             // labels
@@ -162,7 +165,7 @@ public class PotentialView extends AppCompatTextView
             {
                 double x = (double) i * dx + area.getMin().x;
                 vec.set(x, 0.0);
-                area.toScreenPoint(vec, rect, p1);
+                ViewUtils.toScreenPoint(area, vec, rect, p1);
                 canvas.drawLine(p1.x, p1.y - axisLabelSize, p1.x, p1.y + axisLabelSize, axisPaint);
                 if (Math.abs(x) >= dx / 2)
                 {
@@ -185,9 +188,9 @@ public class PotentialView extends AppCompatTextView
         // Vertical axe
         {
             vec.set(0.0, area.getMin().y);
-            area.toScreenPoint(vec, rect, p1);
+            ViewUtils.toScreenPoint(area, vec, rect, p1);
             vec.set(0.0, area.getMax().y);
-            area.toScreenPoint(vec, rect, p2);
+            ViewUtils.toScreenPoint(area, vec, rect, p2);
             canvas.drawLine(p1.x, p1.y, p2.x, p2.y, axisPaint);
             drawArrowHead(canvas, p2, p1, axisArrowSize, axisPaint);
             // labels
@@ -196,7 +199,7 @@ public class PotentialView extends AppCompatTextView
             {
                 double y = (double) i * dy + area.getMin().y;
                 vec.set(0.0, y);
-                area.toScreenPoint(vec, rect, p1);
+                ViewUtils.toScreenPoint(area, vec, rect, p1);
                 canvas.drawLine(p1.x - axisLabelSize, p1.y, p1.x + axisLabelSize, p1.y, axisPaint);
                 if (Math.abs(y) >= dy / 2)
                 {
@@ -228,9 +231,9 @@ public class PotentialView extends AppCompatTextView
                 if (i > 1)
                 {
                     vec.set(x, y);
-                    area.toScreenPoint(vec, rect, p1);
+                    ViewUtils.toScreenPoint(area, vec, rect, p1);
                     vec.set(prevX, prevY);
-                    area.toScreenPoint(vec, rect, p2);
+                    ViewUtils.toScreenPoint(area, vec, rect, p2);
                     boolean isInside = rect.contains(p1.x, p1.y) && rect.contains(p2.x, p2.y)
                             && (p1.x < rect.width() - axisArrowSize && p2.x < rect.width() - axisArrowSize)
                             && (p1.y > axisArrowSize && p2.y > axisArrowSize);
@@ -0,0 +1,167 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.batch;
+
+import com.mkulesh.mmd.model.AtomSet;
+import com.mkulesh.mmd.model.Constants.BoundaryConditionType;
+import com.mkulesh.mmd.model.Constants.EnergyNormType;
+import com.mkulesh.mmd.model.Constants.PotentialType;
+import com.mkulesh.mmd.model.Constants.SolverType;
+import com.mkulesh.mmd.model.Constants.ThermostatType;
+import com.mkulesh.mmd.model.PhysicalArea;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Class that reads the parameters of an atom set from a properties file. The keys and the default values are the
+ * same as used by the application in the shared preferences, so that an experiment can be repeated in the batch
+ * mode. The list preferences accept both the value stored by the application and the name of the type
+ */
+public class BatchParameters
+{
+    /**
+     * Keys of the parameters: the same as the preference keys of the application
+     */
+    private static final String KEY_FILL_METHODS = "pref_fill_methods";
+    private static final String KEY_GRID_HOR_DIMENSION = "pref_grid_hor_dimension";
+    private static final String KEY_GRID_VER_DIMENSION = "pref_grid_ver_dimension";
+    private static final String KEY_AREA_MIN_X = "pref_area_min_x";
+    private static final String KEY_AREA_MAX_X = "pref_area_max_x";
+    private static final String KEY_AREA_MIN_Y = "pref_area_min_y";
+    private static final String KEY_AREA_MAX_Y = "pref_area_max_y";
+    private static final String KEY_BOUND_CONDITION = "pref_bound_condition";
+    private static final String KEY_BOUND_GRAVITY = "pref_bound_gravity";
+    private static final String KEY_BOUND_THERMAL_CHANGE = "pref_bound_thermal_change";
+    private static final String KEY_INIT_TEMPERATURE = "pref_init_temperature";
+    private static final String KEY_ENERGY_NORM = "pref_energy_norm";
+    private static final String KEY_POTENTIAL = "pref_potential";
+    private static final String KEY_ATOM_RADIUS = "pref_atom_radius";
+    private static final String KEY_ATOM_MASS = "pref_atom_mass";
+    private static final String KEY_CALC_TIME_STEP = "pref_calc_time_step";
+    private static final String KEY_CALC_STEP_DISPLACEMENT = "pref_calc_step_displacement";
+    private static final String KEY_CALC_NEIGHBOUR_SKIN = "pref_calc_neighbour_skin";
+    private static final String KEY_CALC_POTENTIAL_TABLE = "pref_calc_potential_table";
+    private static final String KEY_CALC_POTENTIAL_TABLE_ERROR = "pref_calc_potential_table_error";
+    private static final String KEY_CALC_THREADS = "pref_calc_threads";
+    private static final String KEY_CALC_SOLVER = "pref_calc_solver";
+    private static final String KEY_CALC_RESPA_SPLIT = "pref_calc_respa_split";
+    private static final String KEY_CALC_RESPA_INNER_STEPS = "pref_calc_respa_inner_steps";
+    private static final String KEY_CALC_THERMOSTAT = "pref_calc_thermostat";
+    private static final String KEY_CALC_THERMOSTAT_TIME = "pref_calc_thermostat_time";
+
+    private final Properties properties;
+
+    public BatchParameters(Properties properties)
+    {
+        this.properties = properties;
+    }
+
+    /**
+     * Procedure reads the atom parameters and fills the initial layout. The atom set is prepared in the same order
+     * as by the application, since the grid depends on the boundary condition and the temperature depends on the
+     * atom mass
+     */
+    public void read(AtomSet atomSet)
+    {
+        // Potential
+        atomSet.potential.setType(PotentialType.valueOf(getString(KEY_POTENTIAL, "BORN_MAYER")));
+
+        // Physical area
+        final PhysicalArea area = atomSet.getArea();
+        area.set(getDouble(KEY_AREA_MIN_X, -20.0), getDouble(KEY_AREA_MAX_X, 20.0),
+                getDouble(KEY_AREA_MIN_Y, -20.0), getDouble(KEY_AREA_MAX_Y, 20.0));
+        atomSet.getVewPort().assign(area);
+
+        // Boundary condition: it shall be known before the atoms are filled
+        atomSet.setBoundaryCondition(BoundaryConditionType.valueOf(getString(KEY_BOUND_CONDITION, "REFLECTION")));
+
+        // Initial layout
+        final boolean isSquare = getString(KEY_FILL_METHODS, "ic_grid_diagonal").toLowerCase(Locale.ENGLISH)
+                .contains("square");
+        atomSet.fillGridCoordinates(getInt(KEY_GRID_HOR_DIMENSION, 10), getInt(KEY_GRID_VER_DIMENSION, 10),
+                !isSquare);
+
+        atomSet.atomRadius = getDouble(KEY_ATOM_RADIUS, 1.5);
+        atomSet.setAtomMass(getDouble(KEY_ATOM_MASS, 55.84));
+        atomSet.gravity = getDouble(KEY_BOUND_GRAVITY, 0.0);
+        atomSet.thermalChange = getDouble(KEY_BOUND_THERMAL_CHANGE, 0.0);
+        atomSet.timeStep = getDouble(KEY_CALC_TIME_STEP, 4.0);
+        atomSet.setMaxStepDisplacement(getDouble(KEY_CALC_STEP_DISPLACEMENT, 0.05));
+        atomSet.setNeighbourSkin(getDouble(KEY_CALC_NEIGHBOUR_SKIN, 1.0));
+        atomSet.potential.setTabulation(getInt(KEY_CALC_POTENTIAL_TABLE, 1024),
+                getDouble(KEY_CALC_POTENTIAL_TABLE_ERROR, 0.00001));
+        atomSet.setThreadsNumber(getInt(KEY_CALC_THREADS, 0));
+        atomSet.setSolver(SolverType.valueOf(getString(KEY_CALC_SOLVER, "VERLET")),
+                getDouble(KEY_CALC_RESPA_SPLIT, 1.2), getInt(KEY_CALC_RESPA_INNER_STEPS, 4));
+        atomSet.setThermostat(ThermostatType.valueOf(getString(KEY_CALC_THERMOSTAT, "BERENDSEN")),
+                getDouble(KEY_CALC_THERMOSTAT_TIME, 100.0));
+
+        // in the batch mode, each call of nextStep() performs exactly one integration step
+        atomSet.setSubsteps(1);
+
+        // temperature shall be filled after atomMass is set since atom mass is
+        // used for temperature calculations
+        atomSet.fillTemperature(getDouble(KEY_INIT_TEMPERATURE, 1000.0));
+        atomSet.energyNorm = getEnergyNorm(getString(KEY_ENERGY_NORM, "FULL_ENERGY"));
+
+        atomSet.updateParameters();
+    }
+
+    /**
+     * Procedure converts the energy norm given by its type name or by the icon name used in the application
+     */
+    private static EnergyNormType getEnergyNorm(String value)
+    {
+        for (EnergyNormType t : EnergyNormType.values())
+        {
+            if (t.toString().equalsIgnoreCase(value))
+            {
+                return t;
+            }
+        }
+        final String v = value.toLowerCase(Locale.ENGLISH);
+        if (v.contains("ic_norm_temperature"))
+        {
+            return EnergyNormType.TEMPERATURE;
+        }
+        else if (v.contains("ic_norm_none"))
+        {
+            return EnergyNormType.NONE;
+        }
+        else if (v.contains("ic_norm_fullenergy"))
+        {
+            return EnergyNormType.FULL_ENERGY;
+        }
+        throw new IllegalArgumentException("unknown energy norm: " + value);
+    }
+
+    private String getString(String key, String defValue)
+    {
+        return properties.getProperty(key, defValue).trim();
+    }
+
+    private int getInt(String key, int defValue)
+    {
+        final String value = properties.getProperty(key);
+        return (value == null) ? defValue : Integer.parseInt(value.trim());
+    }
+
+    private double getDouble(String key, double defValue)
+    {
+        final String value = properties.getProperty(key);
+        return (value == null) ? defValue : Double.parseDouble(value.trim());
+    }
+}
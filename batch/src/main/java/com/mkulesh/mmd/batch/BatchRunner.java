@@ -0,0 +1,332 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.batch;
+
+import com.mkulesh.mmd.model.Atom;
+import com.mkulesh.mmd.model.AtomSet;
+import com.mkulesh.mmd.model.Vector2D;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Command line entry point that runs an experiment without any display. The parameters of the atom set are read
+ * from a properties file. The runner writes periodic statistics into stats.csv, atom snapshots into
+ * snapshot-<step>.csv and the step counter, the simulated time and the state of the atom set into checkpoint.bin,
+ * which can be used to resume the experiment. A resumed experiment continues with the step counter and the
+ * simulated time of the checkpoint. The run stops when the step budget or the wall-clock budget is exhausted, or
+ * if the process is interrupted; in all cases the final checkpoint is written
+ */
+public class BatchRunner
+{
+    private static final String USAGE = "Usage: mmd-batch [options] <parameters.properties>\n"
+            + "Options:\n"
+            + "  --steps <n>       stop after n integration steps in total (default: no limit)\n"
+            + "  --time <sec>      stop after given wall-clock time in seconds (default: no limit)\n"
+            + "  --stats <n>       write statistics each n steps (default: 1000)\n"
+            + "  --snapshot <n>    write atom snapshot and checkpoint each n steps (default: never)\n"
+            + "  --output <dir>    output directory (default: output)\n"
+            + "  --resume <file>   resume the experiment from given checkpoint";
+
+    private static final String STATS_FILE = "stats.csv";
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+
+    /**
+     * Run options
+     */
+    private File parametersFile = null;
+    private File resumeFile = null;
+    private File outputDir = new File("output");
+    private long maxSteps = 0; // zero means no limit
+    private double maxTime = 0.0; // in seconds, zero means no limit
+    private long statsInterval = 1000;
+    private long snapshotInterval = 0; // zero means no snapshots
+
+    /**
+     * Private attributes to be created internally
+     */
+    private final AtomSet atomSet = new AtomSet();
+    private long step = 0;
+    private double time = 0.0; // simulated time in femtosecond
+    private volatile boolean stopRequested = false;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final Vector2D velocity = new Vector2D();
+
+    public static void main(String[] args)
+    {
+        final BatchRunner runner = new BatchRunner();
+        try
+        {
+            runner.parseArguments(args);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try
+        {
+            runner.run();
+        }
+        catch (IOException ex)
+        {
+            System.err.println("error: " + ex.getLocalizedMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Procedure parses the command line arguments
+     */
+    private void parseArguments(String[] args)
+    {
+        for (int i = 0; i < args.length; i++)
+        {
+            final String arg = args[i];
+            if (!arg.startsWith("--"))
+            {
+                if (parametersFile != null)
+                {
+                    throw new IllegalArgumentException("more than one parameters file given: " + arg);
+                }
+                parametersFile = new File(arg);
+                continue;
+            }
+            if (i + 1 >= args.length)
+            {
+                throw new IllegalArgumentException("missing value of option " + arg);
+            }
+            final String value = args[++i];
+            try
+            {
+                switch (arg)
+                {
+                case "--steps":
+                    maxSteps = Long.parseLong(value);
+                    break;
+                case "--time":
+                    maxTime = Double.parseDouble(value);
+                    break;
+                case "--stats":
+                    statsInterval = Long.parseLong(value);
+                    break;
+                case "--snapshot":
+                    snapshotInterval = Long.parseLong(value);
+                    break;
+                case "--output":
+                    outputDir = new File(value);
+                    break;
+                case "--resume":
+                    resumeFile = new File(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + arg);
+                }
+            }
+            catch (NumberFormatException ex)
+            {
+                throw new IllegalArgumentException("invalid value of option " + arg + ": " + value);
+            }
+        }
+        if (parametersFile == null)
+        {
+            throw new IllegalArgumentException("no parameters file given");
+        }
+    }
+
+    /**
+     * Procedure prepares the atom set and runs the experiment until one of the budgets is exhausted
+     */
+    private void run() throws IOException
+    {
+        final Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(parametersFile))
+        {
+            properties.load(in);
+        }
+        new BatchParameters(properties).read(atomSet);
+        if (resumeFile != null)
+        {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(resumeFile))))
+            {
+                step = in.readLong();
+                time = in.readDouble();
+                atomSet.readState(in);
+            }
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs())
+        {
+            throw new IOException("can not create output directory " + outputDir);
+        }
+
+        // on interruption, the main loop is stopped and the hook waits until the final checkpoint is written. The
+        // hook does not join the main thread since the main thread waits for the hook if it calls System.exit()
+        Runtime.getRuntime().addShutdownHook(new Thread()
+        {
+            @Override
+            public void run()
+            {
+                stopRequested = true;
+                try
+                {
+                    finished.await();
+                }
+                catch (InterruptedException e)
+                {
+                    // nothing to do
+                }
+            }
+        });
+
+        try
+        {
+            runSteps();
+        }
+        finally
+        {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Procedure runs the integration steps and writes the statistics, the snapshots and the final checkpoint
+     */
+    private void runSteps() throws IOException
+    {
+        final File statsFile = new File(outputDir, STATS_FILE);
+        final boolean newStats = resumeFile == null || !statsFile.exists();
+        try (PrintWriter stats = new PrintWriter(new FileWriter(statsFile, !newStats)))
+        {
+            if (newStats)
+            {
+                stats.println("step,time_fs,atoms,temperature_K,kinetic_energy_J,potential_energy_J,"
+                        + "total_energy_J,virial_J,steps_per_second");
+            }
+            final long startTime = System.nanoTime();
+            final long startStep = step;
+            long lastStatsTime = startTime;
+            long lastStatsStep = step;
+            if (resumeFile == null)
+            {
+                // a resumed experiment has already written the statistics of its first step
+                writeStats(stats, 0.0);
+            }
+            while (!stopRequested)
+            {
+                if ((maxSteps > 0 && step >= maxSteps)
+                        || (maxTime > 0.0 && (System.nanoTime() - startTime) / 1.0e9 >= maxTime))
+                {
+                    break;
+                }
+                if (!atomSet.nextStep())
+                {
+                    break;
+                }
+                step++;
+                time += atomSet.getActualTimeStep();
+                if (statsInterval > 0 && step % statsInterval == 0)
+                {
+                    final long now = System.nanoTime();
+                    writeStats(stats, (step - lastStatsStep) * 1.0e9 / (now - lastStatsTime));
+                    lastStatsTime = now;
+                    lastStatsStep = step;
+                }
+                if (snapshotInterval > 0 && step % snapshotInterval == 0)
+                {
+                    writeSnapshot();
+                    writeCheckpoint();
+                }
+            }
+
+            final long now = System.nanoTime();
+            if (step != lastStatsStep)
+            {
+                writeStats(stats, (step - lastStatsStep) * 1.0e9 / (now - lastStatsTime));
+            }
+            writeCheckpoint();
+            final double duration = (now - startTime) / 1.0e9;
+            System.out.println(String.format(Locale.ENGLISH, "%s: %d steps in %.1f s, %.1f steps/s",
+                    stopRequested ? "interrupted" : "finished", step - startStep, duration,
+                    (duration > 0.0) ? (step - startStep) / duration : 0.0));
+        }
+    }
+
+    /**
+     * Procedure writes a line of statistics into the stats file and to the console
+     */
+    private void writeStats(PrintWriter stats, double stepsPerSecond)
+    {
+        final String line = String.format(Locale.ENGLISH, "%d,%.3f,%d,%.3f,%.6e,%.6e,%.6e,%.6e,%.1f", step, time,
+                atomSet.getAtomsNumber(), atomSet.temperature, atomSet.eKinetic, atomSet.ePotenz,
+                atomSet.eKinetic + atomSet.ePotenz, atomSet.virial, stepsPerSecond);
+        stats.println(line);
+        stats.flush();
+        System.out.println(line);
+    }
+
+    /**
+     * Procedure writes coordinates and velocities of all atoms into a snapshot file
+     */
+    private void writeSnapshot() throws IOException
+    {
+        final File file = new File(outputDir, String.format(Locale.ENGLISH, "snapshot-%d.csv", step));
+        try (PrintWriter out = new PrintWriter(new FileWriter(file)))
+        {
+            out.println("x,y,vx,vy");
+            final ArrayList<Atom> atoms = atomSet.getAtoms();
+            for (Atom a : atoms)
+            {
+                a.getAttribute(Atom.VectorType.VELOCITY, velocity);
+                out.println(String.format(Locale.ENGLISH, "%.9e,%.9e,%.9e,%.9e", a.coordinate.x, a.coordinate.y,
+                        velocity.x, velocity.y));
+            }
+        }
+    }
+
+    /**
+     * Procedure writes the step counter, the simulated time and the state of the atom set into the checkpoint
+     * file. The file is first written under a temporary name, so that an interruption never leaves a broken
+     * checkpoint
+     */
+    private void writeCheckpoint() throws IOException
+    {
+        final File file = new File(outputDir, CHECKPOINT_FILE);
+        final File tmp = new File(outputDir, CHECKPOINT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+        {
+            out.writeLong(step);
+            out.writeDouble(time);
+            atomSet.writeState(out);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.BoundaryConditionType;
+import com.mkulesh.mmd.model.Constants.EnergyNormType;
+import com.mkulesh.mmd.model.Constants.PotentialType;
+
+/**
+ * Class that creates the atom sets used by the benchmarks
+ */
+final class BenchmarkAtomSets
+{
+    // Initial temperature of the atoms, in Kelvin
+    private static final double TEMPERATURE = 1000.0;
+
+    // Parameters of the liquid: the grid is molten at a high temperature within given number of steps
+    private static final double LIQUID_DENSITY = 0.8;
+    private static final double MELT_TEMPERATURE = 5000.0;
+    private static final int MELT_STEPS = 50;
+
+    // Parameters of the tabulated potential: the same values as used by default in the application
+    static final int TABLE_RESOLUTION = 1024;
+    static final double TABLE_MAX_ERROR = 0.00001;
+
+    private BenchmarkAtomSets()
+    {
+        // nothing to do
+    }
+
+    /**
+     * Procedure creates a square grid with given number of atoms. The density is given with respect to the grid
+     * where the distance between neighbour atoms equals to the optimal atom distance of the potential: the value
+     * 1.0 gives a solid, smaller values give a gas
+     */
+    static AtomSet create(int atomsNumber, double density, PotentialType potentialType)
+    {
+        final AtomSet atomSet = new AtomSet();
+        atomSet.potential.setType(potentialType);
+        atomSet.potential.setTabulation(TABLE_RESOLUTION, TABLE_MAX_ERROR);
+        atomSet.setBoundaryCondition(BoundaryConditionType.REFLECTION);
+
+        final int n = Math.max(1, (int) Math.round(Math.sqrt(atomsNumber)));
+        final double distance = atomSet.potential.getFunction().getOptDistance() / Math.sqrt(density);
+        final double d = 0.5 * (n + 1) * distance;
+        atomSet.getArea().set(-d, d, -d, d);
+        atomSet.getVewPort().assign(atomSet.getArea());
+
+        atomSet.fillGridCoordinates(n, n, true);
+        atomSet.fillTemperature(TEMPERATURE);
+        atomSet.energyNorm = EnergyNormType.NONE;
+        atomSet.updateParameters();
+        return atomSet;
+    }
+
+    /**
+     * Procedure creates a liquid with given number of atoms: a grid below the solid density is molten at a high
+     * temperature, so the atoms have left their grid positions
+     */
+    static AtomSet createLiquid(int atomsNumber, PotentialType potentialType)
+    {
+        final AtomSet atomSet = create(atomsNumber, LIQUID_DENSITY, potentialType);
+        atomSet.fillTemperature(MELT_TEMPERATURE);
+        atomSet.setSubsteps(1);
+        for (int i = 0; i < MELT_STEPS; i++)
+        {
+            atomSet.nextStep();
+        }
+        atomSet.fillTemperature(TEMPERATURE);
+        atomSet.updateParameters();
+        return atomSet;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.CalculationType;
+import com.mkulesh.mmd.model.Constants.PotentialType;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the force kernel: one evaluation of the accelerations of all atoms. The atoms do not move, so the
+ * neighbour list is built once and the kernel is measured alone. Besides the time per evaluation, the secondary
+ * result "pairs" gives the time per pair interaction
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForceKernelBenchmark
+{
+    @Param({ "100", "1000", "10000", "100000" })
+    public int atoms;
+
+    @Param({ "1.0", "0.25" })
+    public double density;
+
+    @Param({ "LENNARD_JONES", "MORSE", "BORN_MAYER" })
+    public PotentialType potential;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private AtomSet atomSet = null;
+    private long pairsNumber = 0;
+
+    /**
+     * Counter of the pair interactions calculated within an iteration. Only the pairs within the cutoff distance
+     * are counted, not all pairs of the neighbour list, so the result does not depend on the neighbour list skin
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class PairCounter
+    {
+        public long pairs = 0;
+
+        @Setup(Level.Iteration)
+        public void clean()
+        {
+            pairs = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        atomSet = BenchmarkAtomSets.create(atoms, density, potential);
+        atomSet.setThreadsNumber(threads);
+        atomSet.calculateAcceleration();
+        pairsNumber = atomSet.getInteractingPairsNumber();
+    }
+
+    @Benchmark
+    public CalculationType calculateAcceleration(PairCounter counter)
+    {
+        counter.pairs += pairsNumber;
+        return atomSet.calculateAcceleration();
+    }
+}
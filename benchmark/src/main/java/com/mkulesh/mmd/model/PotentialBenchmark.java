@@ -0,0 +1,89 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.PotentialType;
+import com.mkulesh.mmd.potentials.BasePotential;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the potential functions: the result is given in nanoseconds per evaluation of the potential value
+ * and its derivative. The distances are randomly distributed between the half of the optimal distance and the
+ * threshold. Zero table resolution measures the analytical function
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PotentialBenchmark
+{
+    private static final int DISTANCES = 4096;
+
+    @Param({ "LENNARD_JONES", "MORSE", "BORN_MAYER" })
+    public PotentialType potential;
+
+    @Param({ "0", "1024" })
+    public int table;
+
+    private BasePotential function = null;
+    private final double[] distances = new double[DISTANCES];
+    private final double[] result = new double[2];
+
+    @Setup
+    public void setUp()
+    {
+        final Potential p = new Potential();
+        p.setType(potential);
+        p.setTabulation(table, BenchmarkAtomSets.TABLE_MAX_ERROR);
+        function = p.getFunction();
+        final double min = 0.5 * function.getOptDistance();
+        final double max = function.getThreshold();
+        final Random rand = new Random(1);
+        for (int i = 0; i < DISTANCES; i++)
+        {
+            distances[i] = min + (max - min) * rand.nextDouble();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DISTANCES)
+    public double getValueAndDerivative()
+    {
+        double res = 0.0;
+        for (double r : distances)
+        {
+            function.getValueAndDerivative(r, result);
+            res += result[0] + result[1];
+        }
+        return res;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.CalculationType;
+import com.mkulesh.mmd.model.Constants.PotentialType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the force kernel before and after the re-ordering of atoms along the Morton curve. The atom set is
+ * a molten liquid whose storage order is randomly shuffled, like the storage of atoms that have diffused for a
+ * long time. Both cases use the same atom set: the shuffled order, and the shuffled order re-ordered along the
+ * Morton curve
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReorderBenchmark
+{
+    // Seed of the random storage order: both cases shall use the same order
+    private static final long SHUFFLE_SEED = 1;
+
+    @Param({ "4096", "16384", "65536" })
+    public int atoms;
+
+    @Param({ "LENNARD_JONES", "MORSE", "BORN_MAYER" })
+    public PotentialType potential;
+
+    @Param({ "false", "true" })
+    public boolean reordered;
+
+    private AtomSet atomSet = null;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        atomSet = BenchmarkAtomSets.createLiquid(atoms, potential);
+        atomSet.shuffleAtoms(new Random(SHUFFLE_SEED));
+        if (reordered)
+        {
+            atomSet.reorderAtoms();
+        }
+        atomSet.calculateAcceleration();
+    }
+
+    @Benchmark
+    public CalculationType calculateAcceleration()
+    {
+        return atomSet.calculateAcceleration();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.PotentialType;
+import com.mkulesh.mmd.model.Constants.SolverType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the integrators: the result is given in integration steps per second. Each operation is one
+ * step of the whole atom set, including the neighbour list updates, the boundary conditions and the calculation
+ * of the physical parameters
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverBenchmark
+{
+    // Parameters of the multiple time step solver: the same values as used by default in the application
+    private static final double RESPA_SPLIT_DISTANCE = 1.2;
+    private static final int RESPA_INNER_STEPS = 4;
+
+    @Param({ "100", "1000", "10000", "100000" })
+    public int atoms;
+
+    @Param({ "1.0", "0.25" })
+    public double density;
+
+    @Param({ "LENNARD_JONES", "MORSE", "BORN_MAYER" })
+    public PotentialType potential;
+
+    @Param({ "VERLET", "RUNGE_KUTTA", "RESPA", "YOSHIDA4", "FOREST_RUTH" })
+    public SolverType solver;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private AtomSet atomSet = null;
+
+    @Setup
+    public void setUp()
+    {
+        atomSet = BenchmarkAtomSets.create(atoms, density, potential);
+        atomSet.setThreadsNumber(threads);
+        atomSet.setSubsteps(1);
+        atomSet.setSolver(solver, RESPA_SPLIT_DISTANCE, RESPA_INNER_STEPS);
+    }
+
+    @Benchmark
+    public boolean nextStep()
+    {
+        return atomSet.nextStep();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * Class that implements a view of a single atom.
+ *
+ * The state of all atoms is stored in the AtomStorage arrays; objects of this class are only used to pass the
+ * state of single atoms to the consumers outside of the calculation.
+ */
+public class Atom
+{
+
+    /**
+     * Public types and constants
+     */
+    public enum VectorType
+    {
+        COORDINATE, VELOCITY, ACCELERATION
+    }
+
+    /**
+     * State attributes
+     */
+    public Vector2D coordinate = new Vector2D(); // Cartesian coordinates vector
+    Vector2D velocity = new Vector2D(); // velocity vector
+    Vector2D acceleration = new Vector2D(); // acceleration vector
+
+    /**
+     * Default constructor
+     */
+    public Atom()
+    {
+        super();
+    }
+
+    /**
+     * Procedure returns atom attribute with given type
+     */
+    public Vector2D getAttribute(VectorType vectorType)
+    {
+        Vector2D v = new Vector2D();
+        getAttribute(vectorType, v);
+        return v;
+    }
+
+    /**
+     * Procedure copies atom attribute with given type into the given vector
+     */
+    public void getAttribute(VectorType vectorType, Vector2D v)
+    {
+        switch (vectorType)
+        {
+        case COORDINATE:
+            v.assign(coordinate);
+            break;
+        case VELOCITY:
+            v.assign(velocity);
+            break;
+        case ACCELERATION:
+            v.assign(acceleration);
+            break;
+        }
+    }
+}
@@ -0,0 +1,1172 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.BoundaryConditionType;
+import com.mkulesh.mmd.model.Constants.CalculationType;
+import com.mkulesh.mmd.model.Constants.EnergyNormType;
+import com.mkulesh.mmd.model.Constants.PotentialType;
+import com.mkulesh.mmd.model.Constants.SolverType;
+import com.mkulesh.mmd.model.Constants.ThermostatType;
+import com.mkulesh.mmd.potentials.BasePotential;
+import com.mkulesh.mmd.utils.LogUtils;
+import com.mkulesh.mmd.utils.ThreadContol;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Class that implements an atom set
+ */
+public class AtomSet
+{
+
+    /**
+     * State attributes to be stored
+     */
+    private PhysicalArea area = new PhysicalArea(); // original physical area
+    private PhysicalArea viewPort = new PhysicalArea(); // zoomed area
+    private final AtomStorage atoms = new AtomStorage(); // atoms
+    public final Potential potential = new Potential(); // used potential
+    public double atomRadius = 1.0; // radius of the atom
+    private double atomMass = 55.847; // mass of the atom (in atomic mass unit)
+    public double gravity = 0.0; // gravity constant
+    public double thermalChange = 0; // thermal change coefficient (in percent [-1% ... +1%])
+    public double timeStep = 5.0; // time step in femtosecond
+    public EnergyNormType energyNorm = EnergyNormType.FULL_ENERGY; // how to norm energy within next step calculation
+    private BoundaryConditionType boundaryCondition = BoundaryConditionType.REFLECTION;
+    public double ePotenz = 0.0, eKinetic = 0.0, temperature = 0.0;
+    public double virial = 0.0; // virial of the pair forces
+    public String atomImage = "res/raw/atom_blue_red.svg";
+
+    /**
+     * Private attributes to be created internally
+     */
+    private final Random rand = new Random(); // used to generate random coordinates and velocities
+    private SolverBase solver = null;
+    private SolverType solverType = SolverType.VERLET;
+    private double respaSplitDistance = 1.2; // with respect to the optimal atom distance
+    private int respaInnerSteps = 4;
+    private Thermostat thermostat = null;
+    private ThermostatType thermostatType = ThermostatType.BERENDSEN;
+    private double thermostatTime = 100.0; // coupling time of the thermostat in femtosecond
+    private double targetTemperature = 0.0; // temperature the thermostat is coupled to
+    private boolean thermostatActive = false; // target temperature is set
+    private final AtomStorage backupedAtoms = new AtomStorage();
+    private final ArrayList<Atom> atomViews = new ArrayList<>();
+    private final NeighbourList neighbourList = new NeighbourList();
+
+    // Atoms are re-ordered along a space-filling curve each time the neighbour list was rebuilt given number of
+    // times: the rebuilds number indicates how far the atoms have diffused since the last re-ordering
+    private static final long REORDER_REBUILDS = 10;
+    private final MortonOrder mortonOrder = new MortonOrder();
+    private long reorderedRebuilds = 0;
+
+    // Neighbour list used for the short-range part of a split potential: it has a smaller cutoff than the list
+    // of the full potential
+    private final NeighbourList shortNeighbourList = new NeighbourList();
+
+    // Worker pool used for the force calculation. It is shared by all atom sets in order to keep the number of
+    // threads limited, calculations of different atom sets are executed one after another
+    private static final ForceWorkerPool workerPool = new ForceWorkerPool();
+    private int threadsNumber = 1;
+
+    // Number of integration steps per published atom set. If it is zero, the number is automatically chosen so
+    // that the calculation of all steps fits into the frame duration
+    private static final int MAX_SUBSTEPS = 100;
+    private static final long FRAME_DURATION = 40000000L; // in nanoseconds, corresponds to 25 fps of the painter
+    private int substeps = 0, autoSubsteps = 1;
+    private double averagedStepTime = 0.0; // in nanoseconds
+
+    // Controller that selects the actual time step for each integration step
+    private final TimeStepController timeStepController = new TimeStepController();
+
+    // State of the accelerations: they are only valid for current coordinates and for the potential, gravity
+    // and atom mass used by the last calculation
+    private boolean accelerationValid = false, backupedAccelerationValid = false;
+    private BasePotential accelerationPotential = null;
+    private double accelerationGravity = 0.0, accelerationMass = 0.0;
+
+    // Pair potential energy and virial summed up by the last acceleration calculation. They are valid together
+    // with the accelerations
+    private double pairEnergy = 0.0, pairVirial = 0.0, backupedPairEnergy = 0.0, backupedPairVirial = 0.0;
+    private final double[] potentialValue = new double[2], pairSums = new double[2];
+    private ThreadContol pauseHandler = null;
+    private long calculationTime = 0;
+
+    /**
+     * Default constructor
+     */
+    public AtomSet()
+    {
+        super();
+    }
+
+    /**
+     * Copy constructor
+     */
+    public AtomSet(AtomSet set)
+    {
+        super();
+        area.assign(set.area);
+        viewPort.assign(set.viewPort);
+        atoms.assign(set.atoms);
+        potential.assign(set.potential);
+        atomRadius = set.atomRadius;
+        atomMass = set.atomMass;
+        gravity = set.gravity;
+        thermalChange = set.thermalChange;
+        timeStep = set.timeStep;
+        energyNorm = set.energyNorm;
+        boundaryCondition = set.boundaryCondition;
+        ePotenz = set.ePotenz;
+        eKinetic = set.eKinetic;
+        temperature = set.temperature;
+        virial = set.virial;
+        atomImage = set.atomImage;
+        pauseHandler = set.pauseHandler;
+        threadsNumber = set.threadsNumber;
+        substeps = set.substeps;
+        autoSubsteps = set.autoSubsteps;
+        averagedStepTime = set.averagedStepTime;
+        calculationTime = set.calculationTime;
+        solverType = set.solverType;
+        respaSplitDistance = set.respaSplitDistance;
+        respaInnerSteps = set.respaInnerSteps;
+        solver = null;
+        thermostatType = set.thermostatType;
+        thermostatTime = set.thermostatTime;
+        targetTemperature = set.targetTemperature;
+        thermostatActive = set.thermostatActive;
+        thermostat = null;
+    }
+
+    /**
+     * Procedure writes the state of this atom set. The atoms are written in the order of their identifiers
+     */
+    public void writeState(DataOutput out) throws IOException
+    {
+        area.writeState(out);
+        viewPort.writeState(out);
+        out.writeInt(atoms.size);
+        for (int i : atoms.getIdOrder())
+        {
+            out.writeDouble(atoms.x[i]);
+            out.writeDouble(atoms.y[i]);
+            out.writeDouble(atoms.vx[i]);
+            out.writeDouble(atoms.vy[i]);
+            out.writeDouble(atoms.ax[i]);
+            out.writeDouble(atoms.ay[i]);
+        }
+        out.writeUTF(potential.getType().toString());
+        out.writeDouble(atomRadius);
+        out.writeDouble(atomMass);
+        out.writeDouble(gravity);
+        out.writeDouble(thermalChange);
+        out.writeDouble(timeStep);
+        out.writeUTF(energyNorm.toString());
+        out.writeUTF(boundaryCondition.toString());
+        out.writeDouble(ePotenz);
+        out.writeDouble(eKinetic);
+        out.writeDouble(temperature);
+        out.writeDouble(virial);
+        out.writeUTF(atomImage);
+    }
+
+    /**
+     * Procedure reads the state of this atom set written by writeState()
+     */
+    public void readState(DataInput in) throws IOException
+    {
+        area.readState(in);
+        viewPort.readState(in);
+        final int n = in.readInt();
+        atoms.clear();
+        atoms.ensureCapacity(n);
+        for (int k = 0; k < n; k++)
+        {
+            final int i = atoms.add(in.readDouble(), in.readDouble());
+            atoms.vx[i] = in.readDouble();
+            atoms.vy[i] = in.readDouble();
+            atoms.ax[i] = in.readDouble();
+            atoms.ay[i] = in.readDouble();
+        }
+        onAtomsChanged();
+        timeStepController.reset();
+        potential.setType(PotentialType.valueOf(in.readUTF()));
+        atomRadius = in.readDouble();
+        atomMass = in.readDouble();
+        gravity = in.readDouble();
+        thermalChange = in.readDouble();
+        timeStep = in.readDouble();
+        energyNorm = EnergyNormType.valueOf(in.readUTF());
+        boundaryCondition = BoundaryConditionType.valueOf(in.readUTF());
+        ePotenz = in.readDouble();
+        eKinetic = in.readDouble();
+        temperature = in.readDouble();
+        virial = in.readDouble();
+        atomImage = in.readUTF();
+        thermostatActive = false;
+    }
+
+    /**
+     * Procedure sets the pause handler object
+     */
+    public void setPauseHandler(ThreadContol pauseHandler)
+    {
+        this.pauseHandler = pauseHandler;
+    }
+
+    /**
+     * Procedure returns actual visible physical area
+     */
+    public PhysicalArea getArea()
+    {
+        return area;
+    }
+
+    /**
+     * Procedure returns actual visible physical area
+     */
+    public PhysicalArea getVewPort()
+    {
+        return viewPort;
+    }
+
+    /**
+     * Procedure returns the number of atoms
+     */
+    public int getAtomsNumber()
+    {
+        return atoms.size;
+    }
+
+    /**
+     * Procedure returns actual atom vector. The returned atoms are views filled from the atom storage: they
+     * reflect the state at the moment of this call and are reused by subsequent calls. The atoms are sorted by
+     * their identifiers, so the order does not depend on the internal re-ordering
+     */
+    public ArrayList<Atom> getAtoms()
+    {
+        while (atomViews.size() < atoms.size)
+        {
+            atomViews.add(new Atom());
+        }
+        while (atomViews.size() > atoms.size)
+        {
+            atomViews.remove(atomViews.size() - 1);
+        }
+        final int[] order = atoms.getIdOrder();
+        for (int k = 0; k < atoms.size; k++)
+        {
+            atoms.fillAtom(order[k], atomViews.get(k));
+        }
+        return atomViews;
+    }
+
+    /**
+     * Procedure returns the atom storage used by the solvers
+     */
+    AtomStorage getStorage()
+    {
+        return atoms;
+    }
+
+    /**
+     * Procedure sets atom coordinate using limits of equidistance grid
+     */
+    public void fillGridCoordinates(int max_x, int max_y, boolean isDiag)
+    {
+        LogUtils.Debug(this, "creating new atoms grid");
+        atoms.clear();
+        onAtomsChanged();
+        timeStepController.reset();
+        atoms.ensureCapacity(max_x * max_y);
+        // in a periodic area, the grid continues through the bounds with the same distance between atoms
+        final boolean periodic = isPeriodic();
+        final double offset = periodic ? 0.5 : 1.0;
+        for (int x = 0; x < max_x; x++)
+        {
+            for (int y = 0; y < max_y; y++)
+            {
+                double dx = area.getDim().x / ((double) (periodic ? max_x : max_x + 1));
+                double dy = area.getDim().y / ((double) (periodic ? max_y : max_y + 1));
+                double px = ((double) x + offset) * dx + area.getMin().x;
+                double py = ((double) y + offset) * dy + area.getMin().y;
+                if (isDiag && x % 2 == 0)
+                {
+                    py -= dy / 2.0;
+                }
+                atoms.add(px, py);
+            }
+        }
+    }
+
+    /**
+     * Procedure fills the velocities of the atoms using normal distribution
+     */
+    @SuppressWarnings("SameParameterValue")
+    private void fillNormalVelocity(double velMean, double velDeviation)
+    {
+        if (atoms.isEmpty())
+        {
+            return;
+        }
+        // set initial velocity
+        for (int i = 0; i < atoms.size; i++)
+        {
+            double v = rand.nextGaussian() * velDeviation + velMean;
+            double om = 2.0 * Math.PI * rand.nextDouble();
+            atoms.vx[i] = v * Math.cos(om);
+            atoms.vy[i] = v * Math.sin(om);
+            atoms.ax[i] = 0.0;
+            atoms.ay[i] = 0.0;
+        }
+        onAtomsChanged();
+        timeStepController.reset();
+    }
+
+    /**
+     * Procedure fills the velocities of the atoms to ensure given temperature
+     */
+    public void fillTemperature(double T)
+    {
+        double v = Math.sqrt((T * Constants.kB / Constants.EV) * (3.0 / (atomMass * Constants.AK)));
+        fillNormalVelocity(v, 0.0);
+        thermostatActive = false;
+    }
+
+    /**
+     * Procedure calculates the current kinetic energy of this atom set
+     */
+    private double calculateKineticEnergy()
+    {
+        double res = 0.0;
+        final double[] vx = atoms.vx, vy = atoms.vy;
+        for (int i = 0; i < atoms.size; i++)
+        {
+            res += (vx[i] * vx[i] + vy[i] * vy[i]) / 2.0;
+        }
+        return atomMass * Constants.EV * Constants.AK * res;
+    }
+
+    /**
+     * Procedure calculates the average velocity
+     */
+    private double calculateAverageVelocity()
+    {
+        double res = 0.0;
+        for (int i = 0; i < atoms.size; i++)
+        {
+            res += atoms.getVelocityMod(i) / atoms.size;
+        }
+        return res;
+    }
+
+    /**
+     * Procedure calculates the current potential energy and the virial of this atom set with respect to given
+     * potential. The pair sums are taken from the last acceleration calculation if it is still valid; otherwise
+     * the accelerations are re-calculated since the solver will need them for the next step anyway
+     */
+    private void calculatePotentialEnergy()
+    {
+        if (!isAccelerationValid() && calculateAcceleration() != CalculationType.SUCCESS)
+        {
+            // the calculation was interrupted or has detected invalid atoms: sum up the potential separately
+            calculatePairSums();
+        }
+        BasePotential pFunc = potential.getFunction();
+        double gravityCoeff = gravity * Math.abs(pFunc.getPotentialMin());
+        double res = pairEnergy;
+        for (int j = 0; j < atoms.size; j++)
+        {
+            res += gravityCoeff * Math.abs(atoms.y[j] - area.getMin().y);
+        }
+        ePotenz = Constants.EV * res;
+        virial = Constants.EV * pairVirial;
+    }
+
+    /**
+     * Procedure sums up the pair potential energy and the virial without calculation of the accelerations
+     */
+    private void calculatePairSums()
+    {
+        BasePotential pFunc = potential.getFunction();
+        final double threshold = pFunc.getThreshold();
+        neighbourList.update(area, atoms, threshold, isPeriodic());
+        final boolean periodic = neighbourList.isPeriodic();
+        final double periodX = neighbourList.getPeriodX(), periodY = neighbourList.getPeriodY();
+        final double[] x = atoms.x, y = atoms.y;
+        pairEnergy = 0.0;
+        pairVirial = 0.0;
+        for (int j = 0; j < atoms.size; j++)
+        {
+            final int end = neighbourList.getStart(j) + neighbourList.getCount(j);
+            for (int k = neighbourList.getStart(j); k < end; k++)
+            {
+                final int i = neighbourList.getPartner(k);
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                if (periodic)
+                {
+                    dx -= periodX * Math.rint(dx / periodX);
+                    dy -= periodY * Math.rint(dy / periodY);
+                }
+                final double r = Math.sqrt(dx * dx + dy * dy);
+                if (r > threshold)
+                {
+                    continue;
+                }
+                pFunc.getValueAndDerivative(r, potentialValue);
+                pairEnergy += potentialValue[0];
+                pairVirial -= r * potentialValue[1];
+            }
+        }
+    }
+
+    /**
+     * Procedure calculates and stores current temperature
+     */
+    private double calculateTemperature()
+    {
+        double res = 0.0;
+        if (!atoms.isEmpty())
+        {
+            res = 2.0 * eKinetic / (3.0 * Constants.kB * atoms.size);
+        }
+        return res;
+    }
+
+    /**
+     * Procedure calculates and stores current physical parameters
+     */
+    private void calculateParameters()
+    {
+        eKinetic = calculateKineticEnergy();
+        calculatePotentialEnergy();
+        temperature = calculateTemperature();
+    }
+
+    /**
+     * Procedure calculates acceleration for all atoms using their coordinates and velocities. The pair potential
+     * energy and the virial are summed up within the same loop. The pair load is calculated in parallel if more
+     * than one thread is configured.
+     */
+    Constants.CalculationType calculateAcceleration()
+    {
+        BasePotential pFunc = potential.getFunction();
+        accelerationValid = false;
+        final Constants.CalculationType retValue = calculateLoad(pFunc, gravity);
+        if (retValue == CalculationType.SUCCESS)
+        {
+            setAccelerationValid(pairSums[0], pairSums[1]);
+        }
+        return retValue;
+    }
+
+    /**
+     * Procedure calculates acceleration caused by a part of the potential, for example by a split potential of
+     * a multiple time step solver. The gravity is only applied if requested. The pair potential energy and the
+     * virial of this part are stored in sums[0] and sums[1]. The accelerations in the atom storage are marked as
+     * invalid since they do not correspond to the full potential
+     */
+    Constants.CalculationType calculatePartialAcceleration(BasePotential pFunc, boolean withGravity,
+                                                           double[] sums)
+    {
+        accelerationValid = false;
+        final Constants.CalculationType retValue = calculateLoad(pFunc, withGravity ? gravity : 0.0);
+        sums[0] = pairSums[0];
+        sums[1] = pairSums[1];
+        return retValue;
+    }
+
+    /**
+     * Procedure calculates the load caused by given potential and given gravity and converts it into the atom
+     * accelerations. A potential with a smaller threshold than the full potential uses a separate neighbour list,
+     * so that no list is rebuilt if a solver switches between the parts of a split potential
+     */
+    private Constants.CalculationType calculateLoad(BasePotential pFunc, double g)
+    {
+        final BasePotential fullFunc = potential.getFunction();
+        final int n = atoms.size;
+        final double[] ax = atoms.ax, ay = atoms.ay;
+
+        // erase previous load
+        for (int i = 0; i < n; i++)
+        {
+            ax[i] = 0.0;
+            ay[i] = 0.0;
+        }
+
+        // update neighbour list: it is only rebuilt if some atom has moved more than a half of the skin
+        final NeighbourList list = (pFunc.getThreshold() < fullFunc.getThreshold()) ? shortNeighbourList
+                : neighbourList;
+        list.update(area, atoms, pFunc.getThreshold(), isPeriodic());
+
+        // loop over all neighbours in order to update potential-dependent load
+        final Constants.CalculationType retValue = workerPool.calculate(atoms, list, pFunc, pauseHandler,
+                threadsNumber, pairSums);
+        if (retValue == CalculationType.EXT_INTERRUPT)
+        {
+            return retValue;
+        }
+
+        // apply gravity and convert to dimensionless form
+        final double gy = -1.0 * g * Math.abs(fullFunc.getPotentialMin());
+        final double m = atomMass * Constants.AK;
+        for (int i = 0; i < n; i++)
+        {
+            ax[i] /= m;
+            ay[i] = (ay[i] + gy) / m;
+        }
+        return retValue;
+    }
+
+    /**
+     * Procedure checks whether the area is periodic: an atom leaving the area through a bound enters it through
+     * the opposite bound and interacts with atoms near the opposite bound
+     */
+    private boolean isPeriodic()
+    {
+        return boundaryCondition == BoundaryConditionType.TRANSLATION;
+    }
+
+    /**
+     * Procedure marks the accelerations stored in the atom storage as valid for current coordinates and
+     * parameters and stores the corresponding pair potential energy and virial. It shall be called by a solver
+     * that has assembled the accelerations from several parts
+     */
+    void setAccelerationValid(double pairEnergy, double pairVirial)
+    {
+        accelerationValid = true;
+        accelerationPotential = potential.getFunction();
+        accelerationGravity = gravity;
+        accelerationMass = atomMass;
+        this.pairEnergy = pairEnergy;
+        this.pairVirial = pairVirial;
+    }
+
+    /**
+     * Procedure returns actual potential function
+     */
+    BasePotential getPotentialFunction()
+    {
+        return potential.getFunction();
+    }
+
+    /**
+     * Procedure checks whether the stored accelerations correspond to current coordinates and parameters, i.e.
+     * whether they can be used by a solver instead of a new calculation
+     */
+    boolean isAccelerationValid()
+    {
+        return accelerationValid && accelerationPotential == potential.getFunction()
+                && accelerationGravity == gravity && accelerationMass == atomMass;
+    }
+
+    /**
+     * Procedure marks the stored accelerations as invalid. It shall be called if coordinates were changed
+     * outside of the calculateAcceleration() method
+     */
+    void invalidateAcceleration()
+    {
+        accelerationValid = false;
+    }
+
+    /**
+     * Procedure invalidates all data derived from the atom storage. It shall be called if atoms were added,
+     * removed or moved by other means than the solver
+     */
+    private void onAtomsChanged()
+    {
+        neighbourList.invalidate();
+        shortNeighbourList.invalidate();
+        invalidateAcceleration();
+    }
+
+    /**
+     * Procedure validates and removes unstable atoms from the atom set
+     */
+    private int validateAtoms(boolean remove)
+    {
+        int nr = 0;
+        double vMean = calculateAverageVelocity();
+        double areaThreshold = 2.0;
+        double velocityThreshold = 1e+3;
+        for (int i = 0; i < atoms.size; )
+        {
+            boolean isValid = true;
+            if (atoms.isAccelerationNaN(i))
+            {
+                // has infinite acceleration
+                if (remove)
+                {
+                    LogUtils.Debug(this, "removed atom: infinite acceleration");
+                }
+                isValid = false;
+                nr++;
+            }
+            else if (atoms.getVelocityMod(i) > velocityThreshold * vMean)
+            {
+                // has too height velocity
+                if (remove)
+                {
+                    LogUtils.Debug(this, "removed atom: velocity " + atoms.getVelocityMod(i) + " greater than "
+                            + vMean + "* 1e+3");
+                }
+                isValid = false;
+                nr++;
+            }
+            else if (atoms.x[i] < areaThreshold * area.getMin().x
+                    || atoms.x[i] > areaThreshold * area.getMax().x)
+            {
+                // is too far outside area
+                if (remove)
+                {
+                    LogUtils.Debug(this, "removed atom: x-coordinate " + atoms.x[i]
+                            + " is too far from area bound");
+                }
+                isValid = false;
+                nr++;
+            }
+            else if (atoms.y[i] < areaThreshold * area.getMin().y
+                    || atoms.y[i] > areaThreshold * area.getMax().y)
+            {
+                // is too far outside area
+                if (remove)
+                {
+                    LogUtils.Debug(this, "removed atom: y-coordinate " + atoms.y[i]
+                            + " is too far from area bound");
+                }
+                isValid = false;
+                nr++;
+            }
+            if (!isValid && remove)
+            {
+                atoms.remove(i);
+                onAtomsChanged();
+            }
+            else
+            {
+                i++;
+            }
+        }
+        return nr;
+    }
+
+    /**
+     * Procedure calculates the next atom configuration to be published. Depending on the number of substeps,
+     * several integration steps are performed. Returns false if the calculation was interrupted by an external
+     * pause
+     */
+    public boolean nextStep()
+    {
+        final long startTime = System.nanoTime();
+        final int steps = (substeps > 0) ? substeps : autoSubsteps;
+        for (int i = 0; i < steps; i++)
+        {
+            if (!calculateStep())
+            {
+                return false;
+            }
+        }
+        final long duration = System.nanoTime() - startTime;
+        calculationTime = duration / 1000000L;
+
+        // adapt the automatic number of substeps to the averaged duration of one step
+        final double stepTime = (double) duration / (double) steps;
+        averagedStepTime = (averagedStepTime == 0.0) ? stepTime : 0.8 * averagedStepTime + 0.2 * stepTime;
+        autoSubsteps = Math.max(1, Math.min(MAX_SUBSTEPS, (int) (FRAME_DURATION / averagedStepTime)));
+        return true;
+    }
+
+    /**
+     * Procedure takes a snapshot from the given pool and fills it with the current state of this atom set. The
+     * atom vector of the snapshot is filled with the atom attribute of given type
+     */
+    public AtomSnapshot takeSnapshot(AtomSnapshot.Pool pool, Atom.VectorType vectorType)
+    {
+        final AtomSnapshot s = pool.obtain();
+        final int n = atoms.size;
+        s.setSize(n);
+        System.arraycopy(atoms.x, 0, s.x, 0, n);
+        System.arraycopy(atoms.y, 0, s.y, 0, n);
+        System.arraycopy(atoms.id, 0, s.id, 0, n);
+        switch (vectorType)
+        {
+        case COORDINATE:
+            System.arraycopy(atoms.x, 0, s.vectorX, 0, n);
+            System.arraycopy(atoms.y, 0, s.vectorY, 0, n);
+            break;
+        case VELOCITY:
+            System.arraycopy(atoms.vx, 0, s.vectorX, 0, n);
+            System.arraycopy(atoms.vy, 0, s.vectorY, 0, n);
+            break;
+        case ACCELERATION:
+            System.arraycopy(atoms.ax, 0, s.vectorX, 0, n);
+            System.arraycopy(atoms.ay, 0, s.vectorY, 0, n);
+            break;
+        }
+        s.area.assign(area);
+        s.viewPort.assign(viewPort);
+        s.atomRadius = atomRadius;
+        s.atomImage = atomImage;
+        s.ePotenz = ePotenz;
+        s.eKinetic = eKinetic;
+        s.temperature = temperature;
+        s.calculationTime = calculationTime;
+        s.timeStep = getActualTimeStep();
+        return s;
+    }
+
+    /**
+     * Procedure performs a single integration step including the boundary conditions and the energy
+     * normalization. Returns false if the calculation was interrupted by an external pause
+     */
+    private boolean calculateStep()
+    {
+        if (atoms.isEmpty())
+        {
+            calculateParameters();
+            return true;
+        }
+
+        if (solver == null)
+        {
+            solver = createSolver();
+        }
+
+        // re-order atoms in memory if they have diffused
+        if (neighbourList.getRebuildsNumber() - reorderedRebuilds >= REORDER_REBUILDS)
+        {
+            reorderAtoms();
+        }
+
+        // energy of the previous step, used by the energy normalization
+        final double e1 = eKinetic + ePotenz;
+
+        // select the time step before the step. For multiple time step solvers, the controller selects the inner
+        // step
+        final int innerSteps = solver.getInnerSteps();
+        final double nominalTimeStep = Constants.FSec * timeStep / innerSteps;
+        double dt = innerSteps * timeStepController.selectTimeStep(atoms, nominalTimeStep,
+                potential.getFunction().getOptDistance());
+
+        // the first thermostat half kick is applied only once, so that a repeated step does not integrate the
+        // thermostat state again
+        final boolean isThermostat = energyNorm == EnergyNormType.TEMPERATURE;
+        if (isThermostat)
+        {
+            updateTargetTemperature();
+            thermostat.apply(atoms, dt / 2.0, getMeanSquaredVelocity(targetTemperature));
+        }
+        else
+        {
+            thermostatActive = false;
+        }
+
+        // backup current atoms: they are restored if the calculation is interrupted or the step is rejected
+        backupAtoms();
+
+        // calculate new atom configuration. A step that produced invalid atoms is repeated with a reduced time step
+        while (true)
+        {
+            Constants.CalculationType t = solver.calculateNextStep(this, dt);
+            if (t == CalculationType.EXT_INTERRUPT)
+            {
+                LogUtils.Debug(this, "calculation interrupted by external pause");
+                restoreAtoms();
+                return false;
+            }
+            final int nrInvalid = validateAtoms(false);
+            if (nrInvalid == 0 || !timeStepController.reject(nominalTimeStep))
+            {
+                // if the minimum time step is reached, invalid atoms are removed below
+                break;
+            }
+            dt = innerSteps * timeStepController.getTimeStep();
+            LogUtils.Debug(this, "step rejected: " + nrInvalid + " invalid atoms, time step " + dt / Constants.FSec);
+            restoreAtoms();
+        }
+
+        // check system stability and boundary conditions
+        int nrRemoved = validateAtoms(true);
+        if (nrRemoved > 0)
+        {
+            LogUtils.Debug(this, "removed " + nrRemoved + " invalid atoms, time step " + dt / Constants.FSec);
+            calculateParameters();
+        }
+        else
+        {
+            // boundary conditions. The reflection moves an atom that is outside of the area back onto the bound,
+            // so the accelerations shall be re-calculated if an atom was moved. The translation wraps the atoms
+            // into the periodic area without changing their minimum image distances, so the accelerations, the
+            // pair energy sums and the neighbour lists are kept
+            boolean isMoved = false;
+            for (int i = 0; i < atoms.size; i++)
+            {
+                switch (boundaryCondition)
+                {
+                case REFLECTION:
+                    if (atoms.reflect(i, area, atomRadius))
+                    {
+                        isMoved = true;
+                    }
+                    break;
+                case TRANSLATION:
+                    atoms.wrap(i, area);
+                    break;
+                }
+            }
+            if (isMoved)
+            {
+                invalidateAcceleration();
+            }
+
+            // energy normalization. The temperature is controlled by the thermostat within the step, the full
+            // energy is normed by rescaling of velocities after the step
+            if (isThermostat)
+            {
+                thermostat.apply(atoms, dt / 2.0, getMeanSquaredVelocity(targetTemperature));
+                calculateParameters();
+            }
+            else if (energyNorm == EnergyNormType.FULL_ENERGY)
+            {
+                calculateParameters();
+                double ek2 = eKinetic;
+                double e2 = ek2 + ePotenz;
+                double dE = e2 - e1 * (1.0 + thermalChange / 100);
+                if (dE != 0.0 && ek2 != 0.0 && dE / ek2 < 1.0)
+                {
+                    atoms.scaleVelocities(Math.sqrt(1.0 - dE / ek2));
+                    eKinetic -= dE;
+                    temperature = calculateTemperature();
+                }
+            }
+            else
+            {
+                calculateParameters();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Procedure sets the target temperature of the thermostat. The current temperature is used as the initial
+     * target, afterwards the target is changed by the thermal change coefficient within each step
+     */
+    private void updateTargetTemperature()
+    {
+        if (thermostat == null)
+        {
+            thermostat = createThermostat();
+        }
+        if (!thermostatActive)
+        {
+            targetTemperature = temperature;
+            thermostat.reset();
+            thermostatActive = true;
+        }
+        targetTemperature *= 1.0 + thermalChange / 100;
+    }
+
+    /**
+     * Procedure returns the mean squared velocity of an atom for given temperature
+     */
+    private double getMeanSquaredVelocity(double T)
+    {
+        return (T * Constants.kB / Constants.EV) * (3.0 / (atomMass * Constants.AK));
+    }
+
+    /**
+     * Procedure creates the thermostat of selected type
+     */
+    private Thermostat createThermostat()
+    {
+        final double couplingTime = Constants.FSec * thermostatTime;
+        switch (thermostatType)
+        {
+        case LANGEVIN:
+            return new ThermostatLangevin(couplingTime, rand);
+        case NOSE_HOOVER:
+            return new ThermostatNoseHoover(couplingTime);
+        default:
+            return new ThermostatBerendsen(couplingTime);
+        }
+    }
+
+    /**
+     * Procedure creates the solver of selected type
+     */
+    private SolverBase createSolver()
+    {
+        switch (solverType)
+        {
+        case RUNGE_KUTTA:
+            return new SolverRungeKutta();
+        case RESPA:
+            return new SolverRespa(respaSplitDistance, respaInnerSteps);
+        case YOSHIDA4:
+            return new SolverComposition(SolverComposition.TRIPLE_JUMP, false);
+        case FOREST_RUTH:
+            return new SolverComposition(SolverComposition.TRIPLE_JUMP, true);
+        default:
+            return new SolverVerlet();
+        }
+    }
+
+    /**
+     * Procedure sorts the atoms along the Morton curve, so atoms which are close in space are close in memory as
+     * well. The stored accelerations stay with their atoms, but the solvers may keep own per-atom data, so the
+     * accelerations are invalidated together with the neighbour lists
+     */
+    void reorderAtoms()
+    {
+        mortonOrder.reorder(atoms, area);
+        onAtomsChanged();
+        // the neighbour list is rebuilt at the next force calculation
+        reorderedRebuilds = neighbourList.getRebuildsNumber() + 1;
+    }
+
+    /**
+     * Procedure puts the atoms into a random storage order, as it is after the atoms have diffused for a long time
+     * without re-ordering. It is used to measure the effect of the re-ordering
+     */
+    void shuffleAtoms(Random random)
+    {
+        final int n = atoms.size;
+        final int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--)
+        {
+            final int k = random.nextInt(i + 1);
+            final int tmp = order[i];
+            order[i] = order[k];
+            order[k] = tmp;
+        }
+        final AtomStorage buffer = new AtomStorage();
+        buffer.assign(atoms);
+        for (int i = 0; i < n; i++)
+        {
+            atoms.copyAtom(buffer, order[i], i);
+        }
+        onAtomsChanged();
+    }
+
+    /**
+     * Procedure backups current atoms into the backupedAtoms vector
+     */
+    private void backupAtoms()
+    {
+        backupedAtoms.assign(atoms);
+        backupedAccelerationValid = accelerationValid;
+        backupedPairEnergy = pairEnergy;
+        backupedPairVirial = pairVirial;
+    }
+
+    /**
+     * Procedure restores the backupedAtoms into the atoms vector. The solver values kept from the discarded step
+     * are cleared since they do not belong to the restored atoms
+     */
+    private void restoreAtoms()
+    {
+        atoms.assign(backupedAtoms);
+        accelerationValid = backupedAccelerationValid;
+        pairEnergy = backupedPairEnergy;
+        pairVirial = backupedPairVirial;
+        if (solver != null)
+        {
+            solver.reset();
+        }
+    }
+
+    /**
+     * Procedure sets the atom mass (in atomic mass unit)
+     */
+    public void setAtomMass(double atomMass)
+    {
+        this.atomMass = atomMass;
+    }
+
+    /**
+     * Procedure sets the boundary condition. It shall be set before the atoms are filled since the grid depends
+     * on it
+     */
+    public void setBoundaryCondition(BoundaryConditionType boundaryCondition)
+    {
+        this.boundaryCondition = boundaryCondition;
+    }
+
+    /**
+     * Procedure sets the number of threads used for the force calculation. The value 0 uses all processor cores
+     */
+    public void setThreadsNumber(int threadsNumber)
+    {
+        this.threadsNumber = (threadsNumber <= 0) ? Runtime.getRuntime().availableProcessors() : threadsNumber;
+    }
+
+    /**
+     * Procedure sets the number of integration steps per published atom set. The value 0 chooses the number
+     * automatically
+     */
+    public void setSubsteps(int substeps)
+    {
+        this.substeps = substeps;
+    }
+
+    /**
+     * Procedure selects the solver. The parameters of the multiple time step solver are only used by this solver
+     */
+    public void setSolver(SolverType solverType, double respaSplitDistance, int respaInnerSteps)
+    {
+        this.solverType = solverType;
+        this.respaSplitDistance = respaSplitDistance;
+        this.respaInnerSteps = respaInnerSteps;
+        solver = null;
+    }
+
+    /**
+     * Procedure selects the thermostat used if the temperature is normed. The coupling time is given in femtosecond
+     */
+    public void setThermostat(ThermostatType thermostatType, double thermostatTime)
+    {
+        this.thermostatType = thermostatType;
+        this.thermostatTime = thermostatTime;
+        thermostat = null;
+    }
+
+    /**
+     * Procedure updates the physical parameters and deletes the atoms that are outside of the area. It shall be
+     * called after the parameters of this atom set were changed
+     */
+    public void updateParameters()
+    {
+        calculateParameters();
+        for (int i = 0; i < atoms.size; )
+        {
+            if (!area.isInside(atoms.x[i], atoms.y[i]))
+            {
+                atoms.remove(i);
+                onAtomsChanged();
+            }
+            else
+            {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Procedure rotates atom set accordingly to the sensor data
+     */
+    public void rotate(int previousRotation, int currentRotation)
+    {
+        atoms.rotate(previousRotation, currentRotation);
+        onAtomsChanged();
+    }
+
+    /**
+     * Procedure applies new scaling parameters for the viewport
+     */
+    public void scale(double scaleFactor, double maxScale, double dx, double dy)
+    {
+        viewPort.scale(area, scaleFactor, maxScale, dx, dy);
+    }
+
+    /**
+     * Procedure returns the number of neighbour list rebuilds since creation of this atom set
+     */
+    public long getNeighbourListRebuilds()
+    {
+        return neighbourList.getRebuildsNumber();
+    }
+
+    /**
+     * Procedure returns the number of atom pairs within the cutoff distance of the full potential, i.e. the number
+     * of pair interactions calculated by the force kernel. The neighbour list shall be up to date
+     */
+    long getInteractingPairsNumber()
+    {
+        final double threshold = potential.getFunction().getThreshold();
+        final boolean periodic = neighbourList.isPeriodic();
+        final double periodX = neighbourList.getPeriodX(), periodY = neighbourList.getPeriodY();
+        final double[] x = atoms.x, y = atoms.y;
+        long res = 0;
+        for (int j = 0; j < atoms.size; j++)
+        {
+            final int end = neighbourList.getStart(j) + neighbourList.getCount(j);
+            for (int k = neighbourList.getStart(j); k < end; k++)
+            {
+                final int i = neighbourList.getPartner(k);
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                if (periodic)
+                {
+                    dx -= periodX * Math.rint(dx / periodX);
+                    dy -= periodY * Math.rint(dy / periodY);
+                }
+                if (Math.sqrt(dx * dx + dy * dy) <= threshold)
+                {
+                    res++;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Procedure sets the skin distance of the neighbour list
+     */
+    public void setNeighbourSkin(double skin)
+    {
+        neighbourList.setSkin(skin);
+        shortNeighbourList.setSkin(skin);
+    }
+
+    /**
+     * Procedure sets the maximum displacement of an atom within one integration step with respect to the optimal
+     * atom distance. The time step is selected adaptively so that this displacement is not exceeded. The value 0
+     * disables the adaptive selection, i.e. the nominal time step is used
+     */
+    public void setMaxStepDisplacement(double maxDisplacement)
+    {
+        timeStepController.setMaxDisplacement(maxDisplacement);
+    }
+
+    /**
+     * Procedure returns the time step (in femtosecond) selected for the last integration step
+     */
+    public double getActualTimeStep()
+    {
+        final int innerSteps = (solver == null) ? 1 : solver.getInnerSteps();
+        return innerSteps * timeStepController.getTimeStep() / Constants.FSec;
+    }
+
+    /**
+     * Procedure returns the last calculation duration
+     */
+    public long getCalculationTime()
+    {
+        return calculationTime;
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * Class that holds the state of an atom set needed for painting.
+ *
+ * A snapshot is taken from a pool, filled by the calculation thread and handed back to the pool using recycle()
+ * after it is painted. Its arrays are only re-allocated if the number of atoms grows, so the publication of a
+ * new frame does not allocate any memory in the steady state.
+ */
+public class AtomSnapshot
+{
+    private final Pool pool;
+
+    /**
+     * Atom coordinates and the atom vector used to orient the atom image. Only first size elements are valid
+     */
+    public double[] x = new double[0], y = new double[0], vectorX = new double[0], vectorY = new double[0];
+    public int size = 0;
+
+    /**
+     * Stable atom identifiers: the calculation may re-order the atoms, but an atom keeps its identifier
+     */
+    public int[] id = new int[0];
+
+    /**
+     * Parameters of the atom set
+     */
+    public final PhysicalArea area = new PhysicalArea();
+    public final PhysicalArea viewPort = new PhysicalArea();
+    public double atomRadius = 1.0;
+    public String atomImage = null;
+    public double ePotenz = 0.0, eKinetic = 0.0, temperature = 0.0;
+    public long calculationTime = 0;
+    public double timeStep = 0.0; // actual time step in femtosecond
+
+    /**
+     * Helper class that implements a thread-safe pool of snapshots
+     */
+    public static class Pool
+    {
+        // Maximum number of snapshots kept in the pool. Additional snapshots are left to the garbage collector
+        private static final int MAX_POOLED = 8;
+
+        private final AtomSnapshot[] snapshots = new AtomSnapshot[MAX_POOLED];
+        private int pooled = 0;
+
+        /**
+         * Default constructor
+         */
+        public Pool()
+        {
+            // empty
+        }
+
+        /**
+         * Procedure returns a free snapshot, a new one is only created if the pool is empty
+         */
+        public synchronized AtomSnapshot obtain()
+        {
+            if (pooled == 0)
+            {
+                return new AtomSnapshot(this);
+            }
+            final AtomSnapshot s = snapshots[--pooled];
+            snapshots[pooled] = null;
+            return s;
+        }
+
+        private synchronized void release(AtomSnapshot s)
+        {
+            if (pooled < MAX_POOLED)
+            {
+                snapshots[pooled++] = s;
+            }
+        }
+    }
+
+    private AtomSnapshot(Pool pool)
+    {
+        super();
+        this.pool = pool;
+    }
+
+    /**
+     * Procedure returns the number of atoms
+     */
+    public int getAtomsNumber()
+    {
+        return size;
+    }
+
+    /**
+     * Procedure returns this snapshot to its pool. The snapshot shall not be used after this call
+     */
+    public void recycle()
+    {
+        pool.release(this);
+    }
+
+    /**
+     * Procedure ensures that the arrays can hold given number of atoms and sets this number
+     */
+    void setSize(int size)
+    {
+        if (x.length < size)
+        {
+            x = new double[size];
+            y = new double[size];
+            vectorX = new double[size];
+            vectorY = new double[size];
+            id = new int[size];
+        }
+        this.size = size;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import java.util.Arrays;
+
+/**
+ * Class that stores the state of all atoms in primitive arrays (structure of arrays).
+ *
+ * The solvers and the force kernel work directly on these arrays. Only first size elements of each array are
+ * valid, the arrays themselves may be larger.
+ */
+class AtomStorage
+{
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Atom attributes: coordinates, velocities and accelerations
+     */
+    double[] x, y, vx, vy, ax, ay;
+    int size = 0;
+
+    /**
+     * Stable atom identifiers. An atom keeps its identifier if the atoms are re-ordered, so the consumers outside
+     * of the calculation can follow a single atom. Identifiers are assigned in the order the atoms are added
+     */
+    int[] id;
+    private int nextId = 0;
+
+    /**
+     * Default constructor
+     */
+    AtomStorage()
+    {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity)
+    {
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        ax = new double[capacity];
+        ay = new double[capacity];
+        id = new int[capacity];
+    }
+
+    /**
+     * Procedure ensures that the arrays can hold given number of atoms without re-allocation
+     */
+    void ensureCapacity(int capacity)
+    {
+        if (capacity <= x.length)
+        {
+            return;
+        }
+        final double[] px = x, py = y, pvx = vx, pvy = vy, pax = ax, pay = ay;
+        final int[] pid = id;
+        allocate(Math.max(capacity, 2 * x.length));
+        System.arraycopy(px, 0, x, 0, size);
+        System.arraycopy(py, 0, y, 0, size);
+        System.arraycopy(pvx, 0, vx, 0, size);
+        System.arraycopy(pvy, 0, vy, 0, size);
+        System.arraycopy(pax, 0, ax, 0, size);
+        System.arraycopy(pay, 0, ay, 0, size);
+        System.arraycopy(pid, 0, id, 0, size);
+    }
+
+    /**
+     * Procedure removes all atoms
+     */
+    void clear()
+    {
+        size = 0;
+        nextId = 0;
+    }
+
+    /**
+     * Procedure checks whether this storage is empty
+     */
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Procedure adds a new resting atom with given coordinates and returns its index
+     */
+    int add(double px, double py)
+    {
+        ensureCapacity(size + 1);
+        final int i = size++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = 0.0;
+        vy[i] = 0.0;
+        ax[i] = 0.0;
+        ay[i] = 0.0;
+        id[i] = nextId++;
+        return i;
+    }
+
+    /**
+     * Procedure removes the atom with given index. The order of remaining atoms is kept
+     */
+    void remove(int i)
+    {
+        final int n = size - i - 1;
+        if (n > 0)
+        {
+            System.arraycopy(x, i + 1, x, i, n);
+            System.arraycopy(y, i + 1, y, i, n);
+            System.arraycopy(vx, i + 1, vx, i, n);
+            System.arraycopy(vy, i + 1, vy, i, n);
+            System.arraycopy(ax, i + 1, ax, i, n);
+            System.arraycopy(ay, i + 1, ay, i, n);
+            System.arraycopy(id, i + 1, id, i, n);
+        }
+        size--;
+    }
+
+    /**
+     * Assign procedure
+     */
+    void assign(AtomStorage s)
+    {
+        ensureCapacity(s.size);
+        size = s.size;
+        System.arraycopy(s.x, 0, x, 0, size);
+        System.arraycopy(s.y, 0, y, 0, size);
+        System.arraycopy(s.vx, 0, vx, 0, size);
+        System.arraycopy(s.vy, 0, vy, 0, size);
+        System.arraycopy(s.ax, 0, ax, 0, size);
+        System.arraycopy(s.ay, 0, ay, 0, size);
+        System.arraycopy(s.id, 0, id, 0, size);
+        nextId = s.nextId;
+    }
+
+    /**
+     * Procedure copies the state of the atom with index src of given storage into the atom with index dst of this
+     * storage
+     */
+    void copyAtom(AtomStorage s, int src, int dst)
+    {
+        x[dst] = s.x[src];
+        y[dst] = s.y[src];
+        vx[dst] = s.vx[src];
+        vy[dst] = s.vy[src];
+        ax[dst] = s.ax[src];
+        ay[dst] = s.ay[src];
+        id[dst] = s.id[src];
+    }
+
+    /**
+     * Procedure returns the atom indices sorted by the atom identifiers, i.e. in the order the atoms were added
+     */
+    int[] getIdOrder()
+    {
+        final long[] keys = new long[size];
+        for (int i = 0; i < size; i++)
+        {
+            keys[i] = ((long) id[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        final int[] order = new int[size];
+        for (int k = 0; k < size; k++)
+        {
+            order[k] = (int) keys[k];
+        }
+        return order;
+    }
+
+    /**
+     * Procedure copies the state of atom with given index into the atom view
+     */
+    void fillAtom(int i, Atom a)
+    {
+        a.coordinate.set(x[i], y[i]);
+        a.velocity.set(vx[i], vy[i]);
+        a.acceleration.set(ax[i], ay[i]);
+    }
+
+    /**
+     * Procedure sets NaN acceleration for the atom with given index
+     */
+    void invalidateAcceleration(int i)
+    {
+        ax[i] = Double.NaN;
+        ay[i] = Double.NaN;
+    }
+
+    /**
+     * Checks whether the atom with given index has a NaN acceleration
+     */
+    boolean isAccelerationNaN(int i)
+    {
+        return Double.isNaN(ax[i]) || Double.isNaN(ay[i]);
+    }
+
+    /**
+     * Procedure calculates velocity modulus of the atom with given index
+     */
+    double getVelocityMod(int i)
+    {
+        return Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+    }
+
+    /**
+     * Procedure calculates the mean squared velocity of all atoms
+     */
+    double getMeanSquaredVelocity()
+    {
+        if (size == 0)
+        {
+            return 0.0;
+        }
+        double res = 0.0;
+        for (int i = 0; i < size; i++)
+        {
+            res += vx[i] * vx[i] + vy[i] * vy[i];
+        }
+        return res / size;
+    }
+
+    /**
+     * Procedure multiplies the velocities of all atoms with given factor
+     */
+    void scaleVelocities(double factor)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            vx[i] *= factor;
+            vy[i] *= factor;
+        }
+    }
+
+    /**
+     * Procedure performs reflection of the atom with given index from a bound within given area. Returns true if
+     * the atom was moved back onto a bound
+     */
+    boolean reflect(int i, PhysicalArea area, double offset)
+    {
+        boolean isMoved = false;
+
+        // x - coordinate
+        if (x[i] < area.getMin().x + offset)
+        {
+            x[i] = area.getMin().x + offset;
+            vx[i] *= -1.0;
+            isMoved = true;
+        }
+        if (x[i] > area.getMax().x - offset)
+        {
+            x[i] = area.getMax().x - offset;
+            vx[i] *= -1.0;
+            isMoved = true;
+        }
+
+        // y coordinate
+        if (y[i] < area.getMin().y + offset)
+        {
+            y[i] = area.getMin().y + offset;
+            vy[i] *= -1.0;
+            isMoved = true;
+        }
+        if (y[i] > area.getMax().y - offset)
+        {
+            y[i] = area.getMax().y - offset;
+            vy[i] *= -1.0;
+            isMoved = true;
+        }
+        return isMoved;
+    }
+
+    /**
+     * Procedure moves the atom with given index that has left given area through a bound to the opposite bound,
+     * i.e. the coordinates are wrapped into the periodic area. The relative positions of atoms with respect to the
+     * minimum image convention are not changed, so the accelerations stay valid
+     */
+    void wrap(int i, PhysicalArea area)
+    {
+        x[i] = wrap(x[i], area.getMin().x, area.getDim().x);
+        y[i] = wrap(y[i], area.getMin().y, area.getDim().y);
+    }
+
+    private static double wrap(double v, double min, double period)
+    {
+        if (v < min || v >= min + period)
+        {
+            v -= period * Math.floor((v - min) / period);
+        }
+        return v;
+    }
+
+    /**
+     * Procedure rotates all atom vectors based on two rotation parameters
+     */
+    void rotate(int previousRotation, int currentRotation)
+    {
+        rotate(x, y, previousRotation, currentRotation);
+        rotate(vx, vy, previousRotation, currentRotation);
+        rotate(ax, ay, previousRotation, currentRotation);
+    }
+
+    private void rotate(double[] px, double[] py, int previousRotation, int currentRotation)
+    {
+        int r = previousRotation - currentRotation;
+        double d = (r > 0) ? -1.0 : 1.0;
+        for (int i = 0; i < size; i++)
+        {
+            for (int k = 0; k < Math.abs(r); k++)
+            {
+                double xprev = px[i];
+                px[i] = d * py[i];
+                py[i] = -1.0 * d * xprev;
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * Class that implements a uniform cell list over the physical area.
+ *
+ * The area is divided into square cells which are not smaller than the given cutoff radius. Two atoms which are
+ * closer than the cutoff are therefore either in the same cell or in one of the 8 neighbouring cells, so the pair
+ * search only visits these 9 cells instead of the whole atom set. Atoms outside of the area are assigned to the
+ * nearest border cell.
+ *
+ * For periodic boundaries, the cells at opposite bounds are neighbours of each other, atoms outside of the area are
+ * assigned to the cell of their periodic image and the distances are measured using the minimum image convention.
+ * A direction with less than three cells is not divided since the neighbouring cells at both sides would be the
+ * same cell. The cutoff shall not exceed a half of the area, so that an atom interacts with one image of another
+ * atom only.
+ */
+class CellList
+{
+    // Offsets of the neighbouring cells visited for each cell. Only the half of neighbours is visited since
+    // the other half visits this cell.
+    private static final int[] NEIGHBOUR_DX = { 1, 1, 0, -1 };
+    private static final int[] NEIGHBOUR_DY = { 0, 1, 1, 1 };
+
+    // Maximum number of cells per atom: it limits the memory for large areas with a few atoms only
+    private static final int MAX_CELLS_PER_ATOM = 2;
+
+    // Grid parameters
+    private double minX = 0.0, minY = 0.0, cellSizeX = 1.0, cellSizeY = 1.0;
+    private int cellsX = 0, cellsY = 0;
+
+    // Periodic boundaries: the periods are equal to the area dimensions
+    private boolean periodic = false;
+    private double periodX = 0.0, periodY = 0.0;
+
+    // Index of the first atom for each cell and index of the next atom in the same cell
+    private int[] cellHead = new int[0];
+    private int[] cellNext = new int[0];
+
+    // Neighbours of each atom: partners of atom i are stored in partner[start[i]] ... partner[start[i] + count[i] - 1]
+    private int[] start = new int[0];
+    private int[] count = new int[0];
+    private int[] partner = new int[0];
+    private int pairsNumber = 0;
+
+    /**
+     * Default constructor
+     */
+    CellList()
+    {
+        // empty
+    }
+
+    /**
+     * Procedure sorts all atoms into the cells. The cell size is not smaller than the given cutoff
+     */
+    void build(PhysicalArea area, AtomStorage atoms, double cutoff, boolean periodic)
+    {
+        final int n = atoms.size;
+        minX = area.getMin().x;
+        minY = area.getMin().y;
+        this.periodic = periodic;
+        periodX = area.getDim().x;
+        periodY = area.getDim().y;
+        final double minSize = Math.max(cutoff, Double.MIN_NORMAL);
+        cellsX = Math.max(1, (int) (area.getDim().x / minSize));
+        cellsY = Math.max(1, (int) (area.getDim().y / minSize));
+        final int maxCells = Math.max(1, MAX_CELLS_PER_ATOM * n);
+        while ((long) cellsX * (long) cellsY > maxCells)
+        {
+            cellsX = Math.max(1, cellsX / 2);
+            cellsY = Math.max(1, cellsY / 2);
+        }
+        if (periodic)
+        {
+            cellsX = (cellsX < 3) ? 1 : cellsX;
+            cellsY = (cellsY < 3) ? 1 : cellsY;
+        }
+        // cells shall cover the whole area
+        cellSizeX = Math.max(minSize, area.getDim().x / cellsX);
+        cellSizeY = Math.max(minSize, area.getDim().y / cellsY);
+
+        final int cellsNumber = cellsX * cellsY;
+        if (cellHead.length < cellsNumber)
+        {
+            cellHead = new int[cellsNumber];
+        }
+        if (cellNext.length < n)
+        {
+            cellNext = new int[n];
+        }
+        for (int c = 0; c < cellsNumber; c++)
+        {
+            cellHead[c] = -1;
+        }
+
+        // insert in the reverse order in order to keep atoms in each cell sorted by index
+        for (int i = n - 1; i >= 0; i--)
+        {
+            final int c = getCellY(atoms.y[i]) * cellsX + getCellX(atoms.x[i]);
+            cellNext[i] = cellHead[c];
+            cellHead[c] = i;
+        }
+    }
+
+    /**
+     * Procedure collects for each atom all neighbours that are closer than the given cutoff. Each pair is stored
+     * only once. The cell list shall be built before.
+     */
+    void collectNeighbours(AtomStorage atoms, double cutoff)
+    {
+        final int n = atoms.size;
+        final double[] x = atoms.x, y = atoms.y;
+        if (start.length < n)
+        {
+            start = new int[n];
+            count = new int[n];
+        }
+        pairsNumber = 0;
+        final double cutoff2 = cutoff * cutoff;
+        for (int cy = 0; cy < cellsY; cy++)
+        {
+            for (int cx = 0; cx < cellsX; cx++)
+            {
+                for (int i = cellHead[cy * cellsX + cx]; i >= 0; i = cellNext[i])
+                {
+                    final double x1 = x[i], y1 = y[i];
+                    start[i] = pairsNumber;
+
+                    // remaining atoms in the same cell
+                    for (int j = cellNext[i]; j >= 0; j = cellNext[j])
+                    {
+                        addIfNeighbour(x1 - x[j], y1 - y[j], j, cutoff2);
+                    }
+
+                    // atoms in the neighbouring cells. A direction with a single cell has no neighbours
+                    for (int k = 0; k < NEIGHBOUR_DX.length; k++)
+                    {
+                        if ((cellsX == 1 && NEIGHBOUR_DX[k] != 0) || (cellsY == 1 && NEIGHBOUR_DY[k] != 0))
+                        {
+                            continue;
+                        }
+                        int nx = cx + NEIGHBOUR_DX[k];
+                        int ny = cy + NEIGHBOUR_DY[k];
+                        if (periodic)
+                        {
+                            nx = wrap(nx, cellsX);
+                            ny = wrap(ny, cellsY);
+                        }
+                        else if (nx < 0 || nx >= cellsX || ny >= cellsY)
+                        {
+                            continue;
+                        }
+                        for (int j = cellHead[ny * cellsX + nx]; j >= 0; j = cellNext[j])
+                        {
+                            addIfNeighbour(x1 - x[j], y1 - y[j], j, cutoff2);
+                        }
+                    }
+                    count[i] = pairsNumber - start[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Procedure returns the index of the first neighbour of the given atom
+     */
+    int getStart(int i)
+    {
+        return start[i];
+    }
+
+    /**
+     * Procedure returns the number of neighbours of the given atom
+     */
+    int getCount(int i)
+    {
+        return count[i];
+    }
+
+    /**
+     * Procedure returns the atom index stored at given position of the neighbour vector
+     */
+    int getPartner(int k)
+    {
+        return partner[k];
+    }
+
+    /**
+     * Procedure returns whether the list was built for periodic boundaries
+     */
+    boolean isPeriodic()
+    {
+        return periodic;
+    }
+
+    /**
+     * Procedure returns the period in x direction
+     */
+    double getPeriodX()
+    {
+        return periodX;
+    }
+
+    /**
+     * Procedure returns the period in y direction
+     */
+    double getPeriodY()
+    {
+        return periodY;
+    }
+
+    /**
+     * Procedure returns total number of stored pairs
+     */
+    int getPairsNumber()
+    {
+        return pairsNumber;
+    }
+
+    private int getCellX(double x)
+    {
+        return getCell((x - minX) / cellSizeX, cellsX);
+    }
+
+    private int getCellY(double y)
+    {
+        return getCell((y - minY) / cellSizeY, cellsY);
+    }
+
+    private int getCell(double pos, int cells)
+    {
+        if (periodic)
+        {
+            // the cast assigns NaN coordinates to the first cell
+            return wrap((int) (Math.floor(pos) % cells), cells);
+        }
+        final int c = (int) pos;
+        return (c < 0) ? 0 : ((c >= cells) ? cells - 1 : c);
+    }
+
+    private static int wrap(int c, int cells)
+    {
+        return (c < 0) ? c + cells : ((c >= cells) ? c - cells : c);
+    }
+
+    private void addIfNeighbour(double dx, double dy, int j, double cutoff2)
+    {
+        if (periodic)
+        {
+            dx -= periodX * Math.rint(dx / periodX);
+            dy -= periodY * Math.rint(dy / periodY);
+        }
+        if (dx * dx + dy * dy > cutoff2)
+        {
+            return;
+        }
+        if (pairsNumber >= partner.length)
+        {
+            final int[] newPartner = new int[Math.max(16, 2 * partner.length)];
+            System.arraycopy(partner, 0, newPartner, 0, pairsNumber);
+            partner = newPartner;
+        }
+        partner[pairsNumber++] = j;
+    }
+}
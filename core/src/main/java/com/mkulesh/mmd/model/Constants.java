@@ -80,6 +80,28 @@ public class Constants
         TRANSLATION
     }
 
+    /**
+     * Type defining the solver used to integrate equations of motion
+     */
+    public enum SolverType
+    {
+        VERLET,
+        RUNGE_KUTTA,
+        RESPA,
+        YOSHIDA4,
+        FOREST_RUTH
+    }
+
+    /**
+     * Type defining the thermostat used if the temperature is normed
+     */
+    public enum ThermostatType
+    {
+        BERENDSEN,
+        LANGEVIN,
+        NOSE_HOOVER
+    }
+
     /**
      * Type defining the used potential
      */
@@ -0,0 +1,419 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.CalculationType;
+import com.mkulesh.mmd.potentials.BasePotential;
+import com.mkulesh.mmd.utils.ThreadContol;
+import com.mkulesh.mmd.utils.LogUtils;
+
+/**
+ * Class that implements the pair force kernel and a fixed pool of worker threads that execute it in parallel.
+ *
+ * The atoms are divided into contiguous ranges with approximately the same number of neighbour pairs, one range
+ * per thread. Each thread accumulates the load into its own buffer, so both atoms of a pair can be updated without
+ * locks. The buffers are reduced in a fixed order at the end, so the result is deterministic for a fixed number
+ * of threads. The worker threads are started on demand and persist between calculations.
+ */
+class ForceWorkerPool
+{
+    // Minimum number of atoms per thread: smaller atom sets are calculated using less threads
+    private static final int MIN_ATOMS_PER_THREAD = 256;
+
+    // Number of atoms calculated between two checks of the pause handler: it shall be a power of two
+    private static final int PAUSE_CHECK_INTERVAL = 64;
+
+    private static final double[] EMPTY_BUFFER = new double[0];
+
+    /**
+     * Helper class that holds the range and the partial results of one thread
+     */
+    private static final class Task
+    {
+        int from = 0, to = 0;
+        double[] ax = EMPTY_BUFFER, ay = EMPTY_BUFFER;
+        double energy = 0.0, virial = 0.0;
+        CalculationType result = CalculationType.SUCCESS;
+        final double[] potentialValue = new double[2];
+    }
+
+    /**
+     * Helper class that implements a persistent worker thread
+     */
+    private final class Worker extends Thread
+    {
+        private final int index;
+        private boolean stopped = false;
+        private long seenGeneration;
+
+        /**
+         * Worker constructor. It shall be called within the pool monitor since the current generation is
+         * stored as seen: the worker will only execute calculations started after its creation
+         */
+        Worker(int index)
+        {
+            super(ForceWorkerPool.class.getSimpleName() + "-" + index);
+            this.index = index;
+            seenGeneration = generation;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run()
+        {
+            while (true)
+            {
+                synchronized (ForceWorkerPool.this)
+                {
+                    while (!stopped && generation == seenGeneration)
+                    {
+                        try
+                        {
+                            ForceWorkerPool.this.wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            // nothing to do
+                        }
+                    }
+                    if (stopped)
+                    {
+                        return;
+                    }
+                    seenGeneration = generation;
+                }
+                calculateRange(tasks[index]);
+                synchronized (ForceWorkerPool.this)
+                {
+                    pendingTasks--;
+                    if (pendingTasks == 0)
+                    {
+                        ForceWorkerPool.this.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    // Lock that serializes the calculations: the pool monitor itself is only used to signal the workers and
+    // shall not be held while the load is calculated
+    private final Object calculationLock = new Object();
+
+    private Task[] tasks = new Task[0];
+    private Worker[] workers = new Worker[0];
+    private long generation = 0;
+    private int pendingTasks = 0;
+
+    // Parameters of the current calculation
+    private AtomStorage atoms = null;
+    private NeighbourList neighbourList = null;
+    private BasePotential pFunc = null;
+    private ThreadContol pauseHandler = null;
+
+    /**
+     * Default constructor
+     */
+    ForceWorkerPool()
+    {
+        // empty
+    }
+
+    /**
+     * Procedure adds the pair load of all atoms stored in the neighbour list to the atom accelerations using
+     * given number of threads. The accelerations shall be erased before. The pair potential energy and the virial
+     * are stored in pairSums[0] and pairSums[1]
+     */
+    CalculationType calculate(AtomStorage atoms, NeighbourList neighbourList, BasePotential pFunc,
+                              ThreadContol pauseHandler, int threadsNumber, double[] pairSums)
+    {
+        synchronized (calculationLock)
+        {
+            return calculateLocked(atoms, neighbourList, pFunc, pauseHandler, threadsNumber, pairSums);
+        }
+    }
+
+    private CalculationType calculateLocked(AtomStorage atoms, NeighbourList neighbourList, BasePotential pFunc,
+                                            ThreadContol pauseHandler, int threadsNumber, double[] pairSums)
+    {
+        final int n = atoms.size;
+        final int threads = Math.max(1, Math.min(threadsNumber, n / MIN_ATOMS_PER_THREAD));
+        this.atoms = atoms;
+        this.neighbourList = neighbourList;
+        this.pFunc = pFunc;
+        this.pauseHandler = pauseHandler;
+
+        if (threads == 1)
+        {
+            // serial calculation works directly on the atom storage
+            final Task task = prepareTasks(1)[0];
+            task.from = 0;
+            task.to = n;
+            task.ax = atoms.ax;
+            task.ay = atoms.ay;
+            calculateRange(task);
+            task.ax = EMPTY_BUFFER;
+            task.ay = EMPTY_BUFFER;
+            return finish(1, pairSums);
+        }
+
+        // divide atoms into ranges with approximately equal number of pairs
+        prepareTasks(threads);
+        long totalWeight = 0;
+        for (int j = 0; j < n; j++)
+        {
+            totalWeight += neighbourList.getCount(j) + 1;
+        }
+        int j = 0;
+        long weight = 0;
+        for (int t = 0; t < threads; t++)
+        {
+            final Task task = tasks[t];
+            task.from = j;
+            final long limit = totalWeight * (t + 1) / threads;
+            while (j < n && (weight < limit || t == threads - 1))
+            {
+                weight += neighbourList.getCount(j) + 1;
+                j++;
+            }
+            task.to = j;
+            if (task.ax.length < n)
+            {
+                task.ax = new double[n];
+                task.ay = new double[n];
+            }
+            for (int i = 0; i < n; i++)
+            {
+                task.ax[i] = 0.0;
+                task.ay[i] = 0.0;
+            }
+        }
+
+        // start workers and calculate the first range in the current thread
+        synchronized (this)
+        {
+            ensureWorkers(threads);
+            pendingTasks = threads - 1;
+            generation++;
+            notifyAll();
+        }
+        calculateRange(tasks[0]);
+        boolean isInterrupted = false;
+        synchronized (this)
+        {
+            while (pendingTasks > 0)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException e)
+                {
+                    // the workers shall finish anyway since they use the thread buffers
+                    isInterrupted = true;
+                }
+            }
+        }
+        if (isInterrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        // reduce thread buffers in a fixed order
+        final double[] ax = atoms.ax, ay = atoms.ay;
+        for (int t = 0; t < threads; t++)
+        {
+            final double[] tax = tasks[t].ax, tay = tasks[t].ay;
+            for (int i = 0; i < n; i++)
+            {
+                ax[i] += tax[i];
+                ay[i] += tay[i];
+            }
+        }
+        return finish(threads, pairSums);
+    }
+
+    /**
+     * Procedure stops all worker threads
+     */
+    synchronized void shutdown()
+    {
+        for (Worker w : workers)
+        {
+            w.stopped = true;
+        }
+        workers = new Worker[0];
+        notifyAll();
+    }
+
+    private Task[] prepareTasks(int threads)
+    {
+        if (tasks.length < threads)
+        {
+            final Task[] newTasks = new Task[threads];
+            System.arraycopy(tasks, 0, newTasks, 0, tasks.length);
+            for (int t = tasks.length; t < threads; t++)
+            {
+                newTasks[t] = new Task();
+            }
+            tasks = newTasks;
+        }
+        return tasks;
+    }
+
+    private void ensureWorkers(int threads)
+    {
+        if (workers.length == threads - 1)
+        {
+            return;
+        }
+        shutdown();
+        LogUtils.Debug(this, "starting " + (threads - 1) + " worker threads");
+        workers = new Worker[threads - 1];
+        for (int t = 0; t < workers.length; t++)
+        {
+            workers[t] = new Worker(t + 1);
+        }
+        for (Worker w : workers)
+        {
+            w.start();
+        }
+    }
+
+    /**
+     * Procedure sums up energies and result codes of all tasks in a fixed order. A task only checks the loads it
+     * has summed up itself, so the summed load of all atoms is checked here as well
+     */
+    private CalculationType finish(int threads, double[] pairSums)
+    {
+        CalculationType retValue = CalculationType.SUCCESS;
+        double energy = 0.0, virial = 0.0;
+        for (int t = 0; t < threads; t++)
+        {
+            final Task task = tasks[t];
+            energy += task.energy;
+            virial += task.virial;
+            if (task.result == CalculationType.EXT_INTERRUPT)
+            {
+                retValue = CalculationType.EXT_INTERRUPT;
+            }
+            else if (task.result == CalculationType.NAN_DETECTED && retValue == CalculationType.SUCCESS)
+            {
+                retValue = CalculationType.NAN_DETECTED;
+            }
+        }
+        if (retValue == CalculationType.SUCCESS)
+        {
+            final double[] ax = atoms.ax, ay = atoms.ay;
+            for (int i = 0; i < atoms.size; i++)
+            {
+                if (Double.isNaN(ax[i]) || Double.isNaN(ay[i]))
+                {
+                    retValue = CalculationType.NAN_DETECTED;
+                    break;
+                }
+            }
+        }
+        pairSums[0] = energy;
+        pairSums[1] = virial;
+        atoms = null;
+        neighbourList = null;
+        pFunc = null;
+        pauseHandler = null;
+        return retValue;
+    }
+
+    /**
+     * Procedure calculates the pair load for the atoms within the range of given task
+     */
+    private void calculateRange(Task task)
+    {
+        task.result = CalculationType.SUCCESS;
+        task.energy = 0.0;
+        task.virial = 0.0;
+        final double[] x = atoms.x, y = atoms.y, ax = task.ax, ay = task.ay;
+        final double[] potentialValue = task.potentialValue;
+        final double threshold = pFunc.getThreshold();
+        final boolean periodic = neighbourList.isPeriodic();
+        final double periodX = neighbourList.getPeriodX(), periodY = neighbourList.getPeriodY();
+        double energy = 0.0, vir = 0.0;
+        for (int j = task.from; j < task.to; j++)
+        {
+
+            // the pause is only checked at chunk boundaries
+            if (pauseHandler != null && ((j - task.from) & (PAUSE_CHECK_INTERVAL - 1)) == 0
+                    && pauseHandler.isPaused())
+            {
+                task.result = CalculationType.EXT_INTERRUPT;
+                return;
+            }
+
+            if (Double.isNaN(ax[j]) || Double.isNaN(ay[j]))
+            {
+                task.result = CalculationType.NAN_DETECTED;
+                continue;
+            }
+            final double x1 = x[j], y1 = y[j];
+            double ax1 = 0.0, ay1 = 0.0;
+            final int end = neighbourList.getStart(j) + neighbourList.getCount(j);
+            for (int k = neighbourList.getStart(j); k < end; k++)
+            {
+                final int i = neighbourList.getPartner(k);
+
+                // Checks whether the distance between atoms i and j
+                // is smaller than given threshold. For periodic
+                // boundaries, the nearest image of atom i is used
+                double dx = x1 - x[i];
+                double dy = y1 - y[i];
+                if (periodic)
+                {
+                    dx -= periodX * Math.rint(dx / periodX);
+                    dy -= periodY * Math.rint(dy / periodY);
+                }
+                final double r = Math.sqrt(dx * dx + dy * dy);
+                if (r > threshold)
+                {
+                    continue;
+                }
+
+                // calculate potential-dependent load and energy
+                pFunc.getValueAndDerivative(r, potentialValue);
+                final double f = potentialValue[1];
+                if (Double.isNaN(f))
+                {
+                    ax[i] = Double.NaN;
+                    ay[i] = Double.NaN;
+                    task.result = CalculationType.NAN_DETECTED;
+                    continue;
+                }
+
+                // add asymmetric load to both atoms
+                // divide to radius shall be separate since it is too small with
+                // respect to f
+                final double fx = dx * f / r;
+                final double fy = dy * f / r;
+                ax1 -= fx;
+                ay1 -= fy;
+                ax[i] += fx;
+                ay[i] += fy;
+                energy += potentialValue[0];
+                vir -= r * f;
+            }
+            ax[j] += ax1;
+            ay[j] += ay1;
+        }
+        task.energy = energy;
+        task.virial = vir;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import java.util.Arrays;
+
+/**
+ * Class that re-orders atoms along the Morton (Z-order) space-filling curve.
+ *
+ * The coordinates are mapped onto a grid of 2^15 x 2^15 points over the physical area and the bits of both grid
+ * coordinates are interleaved into a single key. Atoms which are close in space have close keys in most cases, so
+ * the atoms sorted by this key are close in memory as well. As the atoms diffuse, the pair loop touches atoms
+ * spread over the whole storage; after re-ordering, the neighbours of an atom are mostly stored in the same cache
+ * lines. Atoms outside of the area are mapped onto the nearest border point.
+ *
+ * The order of atoms is not visible outside of the calculation since each atom keeps its stable identifier.
+ */
+class MortonOrder
+{
+    // Number of grid bits per axis
+    private static final int BITS = 15;
+    private static final int GRID_MAX = (1 << BITS) - 1;
+
+    // Sort keys: the Morton code in the upper half and the atom index in the lower half
+    private long[] keys = new long[0];
+
+    // Copy of the atoms used to apply the permutation
+    private final AtomStorage buffer = new AtomStorage();
+
+    /**
+     * Default constructor
+     */
+    MortonOrder()
+    {
+        // empty
+    }
+
+    /**
+     * Procedure sorts the atoms of given storage by their Morton codes within given area
+     */
+    void reorder(AtomStorage atoms, PhysicalArea area)
+    {
+        final int n = atoms.size;
+        if (keys.length < n)
+        {
+            keys = new long[n];
+        }
+        final double minX = area.getMin().x, minY = area.getMin().y;
+        final double scaleX = GRID_MAX / Math.max(area.getDim().x, Double.MIN_NORMAL);
+        final double scaleY = GRID_MAX / Math.max(area.getDim().y, Double.MIN_NORMAL);
+        for (int i = 0; i < n; i++)
+        {
+            final int gx = toGrid((atoms.x[i] - minX) * scaleX);
+            final int gy = toGrid((atoms.y[i] - minY) * scaleY);
+            keys[i] = ((long) getKey(gx, gy) << 32) | i;
+        }
+        Arrays.sort(keys, 0, n);
+
+        buffer.assign(atoms);
+        for (int k = 0; k < n; k++)
+        {
+            atoms.copyAtom(buffer, (int) keys[k], k);
+        }
+    }
+
+    /**
+     * Procedure converts a scaled coordinate into a grid coordinate. NaN is mapped onto zero
+     */
+    private static int toGrid(double v)
+    {
+        if (!(v > 0.0))
+        {
+            return 0;
+        }
+        return (v >= GRID_MAX) ? GRID_MAX : (int) v;
+    }
+
+    /**
+     * Procedure interleaves the bits of two grid coordinates: the bits of x are placed at even positions and the
+     * bits of y at odd positions of the key. The key is non-negative since only 2 * BITS bits are used
+     */
+    static int getKey(int gx, int gy)
+    {
+        return spread(gx) | (spread(gy) << 1);
+    }
+
+    /**
+     * Procedure inserts a zero bit between each two bits of a value that has not more than 16 bits
+     */
+    private static int spread(int v)
+    {
+        v &= 0x0000ffff;
+        v = (v | (v << 8)) & 0x00ff00ff;
+        v = (v | (v << 4)) & 0x0f0f0f0f;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+}
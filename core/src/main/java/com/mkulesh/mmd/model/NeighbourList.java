@@ -0,0 +1,191 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * Class that implements a Verlet neighbour list.
+ *
+ * For each atom, the list stores all neighbours within the cutoff radius extended by a skin distance. The list
+ * remains valid as long as no atom has moved more than a half of the skin since the last build, so it can be
+ * reused for many force evaluations. The rebuild uses a cell list.
+ *
+ * For periodic boundaries, the distances shall be measured using the minimum image convention with the periods
+ * returned by this list. An atom moved to the opposite bound is not considered as displaced, so the list stays
+ * valid if atoms cross the bounds.
+ */
+class NeighbourList
+{
+    private final CellList cellList = new CellList();
+
+    // Skin distance added to the cutoff radius
+    private double skin = 1.0;
+
+    // Parameters of the last build
+    private double lastCutoff = -1.0;
+    private int lastAtomsNumber = -1;
+    private double[] refX = new double[0];
+    private double[] refY = new double[0];
+    private boolean valid = false;
+
+    // Number of rebuilds since creation
+    private long rebuildsNumber = 0;
+
+    /**
+     * Default constructor
+     */
+    NeighbourList()
+    {
+        // empty
+    }
+
+    /**
+     * Procedure sets the skin distance
+     */
+    void setSkin(double skin)
+    {
+        if (this.skin != skin)
+        {
+            this.skin = Math.max(0.0, skin);
+            invalidate();
+        }
+    }
+
+    /**
+     * Procedure returns the skin distance
+     */
+    double getSkin()
+    {
+        return skin;
+    }
+
+    /**
+     * Procedure forces the rebuild at the next update, for example if atoms were removed or re-ordered
+     */
+    void invalidate()
+    {
+        valid = false;
+    }
+
+    /**
+     * Procedure returns the number of rebuilds since creation
+     */
+    long getRebuildsNumber()
+    {
+        return rebuildsNumber;
+    }
+
+    /**
+     * Procedure checks whether the list is still valid for current coordinates and rebuilds it if necessary
+     */
+    void update(PhysicalArea area, AtomStorage atoms, double cutoff, boolean periodic)
+    {
+        if (!valid || lastCutoff != cutoff || lastAtomsNumber != atoms.size || periodic != cellList.isPeriodic()
+                || (periodic && (area.getDim().x != cellList.getPeriodX() || area.getDim().y != cellList.getPeriodY()))
+                || isDisplacementExceeded(atoms))
+        {
+            rebuild(area, atoms, cutoff, periodic);
+        }
+    }
+
+    /**
+     * Procedure returns whether the list was built for periodic boundaries
+     */
+    boolean isPeriodic()
+    {
+        return cellList.isPeriodic();
+    }
+
+    /**
+     * Procedure returns the period in x direction. It is only valid for periodic boundaries
+     */
+    double getPeriodX()
+    {
+        return cellList.getPeriodX();
+    }
+
+    /**
+     * Procedure returns the period in y direction. It is only valid for periodic boundaries
+     */
+    double getPeriodY()
+    {
+        return cellList.getPeriodY();
+    }
+
+    /**
+     * Procedure returns the index of the first neighbour of the given atom
+     */
+    int getStart(int i)
+    {
+        return cellList.getStart(i);
+    }
+
+    /**
+     * Procedure returns the number of neighbours of the given atom
+     */
+    int getCount(int i)
+    {
+        return cellList.getCount(i);
+    }
+
+    /**
+     * Procedure returns the atom index stored at given position of the neighbour vector
+     */
+    int getPartner(int k)
+    {
+        return cellList.getPartner(k);
+    }
+
+    private void rebuild(PhysicalArea area, AtomStorage atoms, double cutoff, boolean periodic)
+    {
+        final int n = atoms.size;
+        cellList.build(area, atoms, cutoff + skin, periodic);
+        cellList.collectNeighbours(atoms, cutoff + skin);
+        if (refX.length < n)
+        {
+            refX = new double[n];
+            refY = new double[n];
+        }
+        System.arraycopy(atoms.x, 0, refX, 0, n);
+        System.arraycopy(atoms.y, 0, refY, 0, n);
+        lastCutoff = cutoff;
+        lastAtomsNumber = n;
+        valid = true;
+        rebuildsNumber++;
+    }
+
+    private boolean isDisplacementExceeded(AtomStorage atoms)
+    {
+        final double maxDisplacement2 = skin * skin / 4.0;
+        final double[] x = atoms.x, y = atoms.y;
+        final boolean periodic = cellList.isPeriodic();
+        final double periodX = cellList.getPeriodX(), periodY = cellList.getPeriodY();
+        for (int i = 0; i < atoms.size; i++)
+        {
+            double dx = x[i] - refX[i];
+            double dy = y[i] - refY[i];
+            if (periodic)
+            {
+                dx -= periodX * Math.rint(dx / periodX);
+                dy -= periodY * Math.rint(dy / periodY);
+            }
+            // negated comparison in order to detect NaN displacement as well
+            if (!(dx * dx + dy * dy <= maxDisplacement2))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -14,20 +14,17 @@
 
 package com.mkulesh.mmd.model;
 
-import android.graphics.Point;
-import android.graphics.Rect;
-import android.os.Parcel;
-import android.os.Parcelable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
-import androidx.annotation.NonNull;
-
-public class PhysicalArea implements Parcelable
+public class PhysicalArea
 {
 
     private static final double NO_ZOOM_FACTOR = 1.0;
 
     /**
-     * State attributes to be stored in Parcel
+     * State attributes to be stored
      */
     private Vector2D min = new Vector2D(-20.0, -20.0); // left-bottom corner of the physical area
     private Vector2D max = new Vector2D(20.0, 20.0); // right-tom corner of the physical area
@@ -35,51 +32,27 @@ public class PhysicalArea implements Parcelable
     private double zoom = NO_ZOOM_FACTOR; // current zoom
 
     /**
-     * Parcelable interface
+     * Procedure writes the state of this area
      */
-    private PhysicalArea(Parcel in)
-    {
-        super();
-        readFromParcel(in);
-    }
-
-    @Override
-    public int describeContents()
-    {
-        // empty
-        return 0;
-    }
-
-    @Override
-    public void writeToParcel(Parcel dest, int flags)
+    void writeState(DataOutput out) throws IOException
     {
-        min.writeToParcel(dest, flags);
-        max.writeToParcel(dest, flags);
-        dim.writeToParcel(dest, flags);
-        dest.writeDouble(zoom);
+        min.writeState(out);
+        max.writeState(out);
+        dim.writeState(out);
+        out.writeDouble(zoom);
     }
 
-    private void readFromParcel(Parcel in)
+    /**
+     * Procedure reads the state of this area
+     */
+    void readState(DataInput in) throws IOException
     {
-        min.readFromParcel(in);
-        max.readFromParcel(in);
-        dim.readFromParcel(in);
+        min.readState(in);
+        max.readState(in);
+        dim.readState(in);
         zoom = in.readDouble();
     }
 
-    public static final Parcelable.Creator<PhysicalArea> CREATOR = new Parcelable.Creator<PhysicalArea>()
-    {
-        public PhysicalArea createFromParcel(Parcel in)
-        {
-            return new PhysicalArea(in);
-        }
-
-        public PhysicalArea[] newArray(int size)
-        {
-            return new PhysicalArea[size];
-        }
-    };
-
     /**
      * Default constructor
      */
@@ -134,47 +107,22 @@ public class PhysicalArea implements Parcelable
     }
 
     /**
-     * Procedure checks that the given vector is inside of this area
+     * Procedure checks that the given point is inside of this area
      */
-    boolean isInside(Vector2D p)
+    boolean isInside(double x, double y)
     {
-        return (p.x >= min.x && p.x <= max.x && p.y >= min.y && p.y <= max.y);
+        return (x >= min.x && x <= max.x && y >= min.y && y <= max.y);
     }
 
     /**
      * Procedure returns the string representation of this area
      */
-    @NonNull
+    @Override
     public String toString()
     {
         return "min [" + min.x + "," + min.y + "] max [" + max.x + "," + max.y + "] dim [" + dim.x + "," + dim.y + "]";
     }
 
-    /**
-     * Converts physical coordinate to screen point
-     */
-    public void toScreenPoint(Vector2D fp, Rect r, Point sp)
-    {
-        sp.x = r.left + (int) ((double) r.width() * (fp.x - min.x) / dim.x);
-        sp.y = r.bottom - (int) ((double) r.height() * (fp.y - min.y) / dim.y);
-    }
-
-    /**
-     * Converts physical length to screen length along X-axe
-     */
-    public int toScreenXLength(double flength, Rect r)
-    {
-        return (int) ((double) r.width() * flength / dim.x);
-    }
-
-    /**
-     * Converts physical length to screen length along Y-axe
-     */
-    public int toScreenYLength(double flength, Rect r)
-    {
-        return (int) ((double) r.height() * flength / dim.y);
-    }
-
     /**
      * Procedure checks whether this area is zoomed
      */
@@ -186,7 +134,7 @@ public class PhysicalArea implements Parcelable
     /**
      * Procedure returns current zoom factor
      */
-    double getZoom()
+    public double getZoom()
     {
         return zoom;
     }
@@ -194,7 +142,7 @@ public class PhysicalArea implements Parcelable
     /**
      * Procedure returns current center of this area
      */
-    Vector2D getFocus()
+    public Vector2D getFocus()
     {
         Vector2D center = max.sum(min).division(2.0);
         center.divide(dim);
@@ -19,6 +19,7 @@ import com.mkulesh.mmd.potentials.BasePotential;
 import com.mkulesh.mmd.potentials.BornMayer;
 import com.mkulesh.mmd.potentials.LennardJones;
 import com.mkulesh.mmd.potentials.Morse;
+import com.mkulesh.mmd.potentials.TabulatedPotential;
 
 public class Potential
 {
@@ -26,6 +27,10 @@ public class Potential
     private PotentialType type = PotentialType.LENNARD_JONES;
     private BasePotential function = null;
 
+    // Tabulation parameters: the exact potential is used if the table resolution is zero
+    private int tableResolution = 0;
+    private double tableMaxError = 1.0e-6;
+
     public PotentialType getType()
     {
         return type;
@@ -40,6 +45,31 @@ public class Potential
         this.type = type;
     }
 
+    /**
+     * Procedure sets the table resolution and the maximum interpolation error of the tabulated potential. Zero
+     * resolution disables the tabulation
+     */
+    public void setTabulation(int resolution, double maxError)
+    {
+        if (tableResolution != resolution || tableMaxError != maxError)
+        {
+            function = null;
+        }
+        tableResolution = resolution;
+        tableMaxError = maxError;
+    }
+
+    /**
+     * Assign procedure. The potential function is immutable and therefore shared
+     */
+    public void assign(Potential p)
+    {
+        type = p.type;
+        tableResolution = p.tableResolution;
+        tableMaxError = p.tableMaxError;
+        function = p.function;
+    }
+
     /**
      * Procedure creates the potential to be used
      */
@@ -57,13 +87,17 @@ public class Potential
     }
 
     /**
-     * Procedure returns actual potential function
+     * Procedure returns actual potential function. It is tabulated if the table resolution is set
      */
     BasePotential getFunction()
     {
         if (function == null)
         {
             function = createPotential(type);
+            if (tableResolution > 0)
+            {
+                function = new TabulatedPotential(function, tableResolution, tableMaxError);
+            }
         }
         return function;
     }
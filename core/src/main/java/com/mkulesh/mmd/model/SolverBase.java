@@ -25,4 +25,16 @@ interface SolverBase
      * It stores the coordinates and velocities for step n into given AtomSet using time step dt
      */
     Constants.CalculationType calculateNextStep(AtomSet atomSet, double dt);
+
+    /**
+     * Procedure returns the number of inner steps the time step dt is divided into. The adaptive time step is
+     * selected for a single inner step
+     */
+    int getInnerSteps();
+
+    /**
+     * Procedure clears all values the solver keeps from the previous step. It shall be called if the atoms are
+     * restored to a state the solver has not calculated, for example after a rejected step
+     */
+    void reset();
 }
@@ -0,0 +1,146 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.CalculationType;
+
+/**
+ * This class implements symplectic integration methods composed of second order Verlet steps, see: Yoshida,
+ * "Construction of higher order symplectic integrators", Phys. Lett. A 150, 1990
+ *
+ * The step dt is divided into stages with the time steps w[k] * dt, where the weights sum up to one. Each stage is
+ * a symmetric Verlet step, so the composition is symplectic and time-reversible as well. With the weights of the
+ * triple jump, w = { w1, w0, w1 } with w1 = 1 / (2 - 2^(1/3)) and w0 = 1 - 2 * w1, the leading error terms of the
+ * stages cancel and the method is of the fourth order.
+ *
+ * The stages are either Velocity Verlet steps (kick - drift - kick) or Position Verlet steps (drift - kick -
+ * drift). The triple jump of Velocity Verlet steps is known as the fourth order Yoshida method; the triple jump of
+ * Position Verlet steps is the original Forest-Ruth method. In the velocity form, the acceleration at the end of a
+ * stage is equal to the acceleration at the begin of the next stage, so a step needs one force calculation per
+ * stage. In the position form, the accelerations at the end of a step are not known, so the calculation of the
+ * potential energy needs one more force calculation per step.
+ *
+ * The time step dt is the step of the whole composition, so a composition step needs several times more force
+ * calculations than a Velocity Verlet step of the same length, but allows a longer time step at the same accuracy.
+ */
+public class SolverComposition implements SolverBase
+{
+    // Weights of the fourth order triple jump
+    private static final double W1 = 1.0 / (2.0 - Math.cbrt(2.0));
+    private static final double W0 = 1.0 - 2.0 * W1;
+    static final double[] TRIPLE_JUMP = { W1, W0, W1 };
+
+    private final double[] weights;
+    private final boolean positionForm;
+
+    /**
+     * Default constructor. The weights shall sum up to one
+     */
+    SolverComposition(double[] weights, boolean positionForm)
+    {
+        this.weights = weights;
+        this.positionForm = positionForm;
+    }
+
+    @Override
+    public Constants.CalculationType calculateNextStep(AtomSet atomSet, double dt)
+    {
+        final AtomStorage atoms = atomSet.getStorage();
+        final int n = atoms.size;
+        final double[] x = atoms.x, y = atoms.y, vx = atoms.vx, vy = atoms.vy, ax = atoms.ax, ay = atoms.ay;
+
+        // calculate acceleration a(t) if it is not known from the previous step
+        Constants.CalculationType t;
+        if (!positionForm && !atomSet.isAccelerationValid())
+        {
+            t = atomSet.calculateAcceleration();
+            if (t != CalculationType.SUCCESS)
+            {
+                return t;
+            }
+        }
+
+        for (double w : weights)
+        {
+            final double h = w * dt;
+            final double kick = positionForm ? h : h / 2.0;
+            final double drift = positionForm ? h / 2.0 : h;
+
+            // first half of the stage
+            for (int i = 0; i < n; i++)
+            {
+                if (positionForm)
+                {
+                    x[i] += vx[i] * drift;
+                    y[i] += vy[i] * drift;
+                }
+                else
+                {
+                    vx[i] += ax[i] * kick;
+                    vy[i] += ay[i] * kick;
+                    x[i] += vx[i] * drift;
+                    y[i] += vy[i] * drift;
+                }
+            }
+
+            // calculate acceleration for the coordinates in the middle (position form) or at the end (velocity
+            // form) of the stage
+            t = atomSet.calculateAcceleration();
+            if (t != CalculationType.SUCCESS)
+            {
+                return t;
+            }
+
+            // second half of the stage
+            for (int i = 0; i < n; i++)
+            {
+                vx[i] += ax[i] * kick;
+                vy[i] += ay[i] * kick;
+                if (positionForm)
+                {
+                    x[i] += vx[i] * drift;
+                    y[i] += vy[i] * drift;
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++)
+        {
+            if (Double.isNaN(vx[i]) || Double.isNaN(vy[i]) || Double.isNaN(x[i]) || Double.isNaN(y[i]))
+            {
+                return CalculationType.NAN_DETECTED;
+            }
+        }
+
+        if (positionForm)
+        {
+            // stored accelerations belong to the coordinates before the last drift
+            atomSet.invalidateAcceleration();
+        }
+        return CalculationType.SUCCESS;
+    }
+
+    @Override
+    public int getInnerSteps()
+    {
+        return weights.length;
+    }
+
+    @Override
+    public void reset()
+    {
+        // empty: the solver does not keep any values between steps
+    }
+}
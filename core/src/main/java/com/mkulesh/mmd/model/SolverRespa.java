@@ -0,0 +1,202 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import com.mkulesh.mmd.model.Constants.CalculationType;
+import com.mkulesh.mmd.potentials.BasePotential;
+import com.mkulesh.mmd.potentials.SplitPotential;
+
+/**
+ * This class implements the reversible multiple time step integration method (r-RESPA), see: Tuckerman, Berne,
+ * Martyna, "Reversible multiple time scale molecular dynamics", J. Chem. Phys. 97, 1992
+ *
+ * The potential is split into a short-range inner part and a long-range outer part. The outer part and the gravity
+ * change slowly and are applied as two half kicks at the bounds of the step dt. In between, the inner part is
+ * integrated using Velocity Verlet with innerSteps steps of dt / innerSteps. Since the expensive long-range pairs
+ * are only evaluated once per step, dt can be several times longer than the time step of the Velocity Verlet
+ * method at the same energy drift.
+ *
+ * The sum of both parts is stored in the atom set at the end of each step, so the energy and the validation of
+ * the atoms work as for other solvers.
+ */
+public class SolverRespa implements SolverBase
+{
+    // Width of the switching interval with respect to the optimal atom distance
+    private static final double SWITCH_WIDTH = 0.2;
+
+    private final double splitDistance;
+    private final int innerSteps;
+
+    // Split potentials: they are re-created if the potential of the atom set is changed
+    private BasePotential function = null;
+    private SplitPotential innerPotential = null, outerPotential = null;
+
+    // Accelerations caused by both parts and their pair sums. They are valid for the coordinates at the end of the
+    // previous step if the accelerations stored in the atom set are valid too
+    private double[] innerAx, innerAy, outerAx, outerAy;
+    private final double[] innerSums = new double[2], outerSums = new double[2];
+    private boolean partsValid = false;
+
+    // Number of atoms the helper arrays are allocated for. The arrays are only re-allocated if the atom number
+    // exceeds this capacity, so the steady-state step does not allocate any memory
+    private int capacity = -1;
+
+    /**
+     * Default constructor. The split distance is given with respect to the optimal atom distance
+     */
+    SolverRespa(double splitDistance, int innerSteps)
+    {
+        this.splitDistance = splitDistance;
+        this.innerSteps = Math.max(1, innerSteps);
+    }
+
+    /**
+     * Initialization method
+     */
+    private void initialize(int atomNumber)
+    {
+        capacity = atomNumber;
+        innerAx = new double[capacity];
+        innerAy = new double[capacity];
+        outerAx = new double[capacity];
+        outerAy = new double[capacity];
+    }
+
+    @Override
+    public Constants.CalculationType calculateNextStep(AtomSet atomSet, double dt)
+    {
+        final AtomStorage atoms = atomSet.getStorage();
+        if (capacity < atoms.size)
+        {
+            initialize(atoms.size);
+            partsValid = false;
+        }
+
+        final BasePotential f = atomSet.getPotentialFunction();
+        if (function != f)
+        {
+            function = f;
+            final double switchEnd = splitDistance * f.getOptDistance();
+            final double switchStart = switchEnd - SWITCH_WIDTH * f.getOptDistance();
+            innerPotential = new SplitPotential(f, SplitPotential.Part.INNER, switchStart, switchEnd);
+            outerPotential = new SplitPotential(f, SplitPotential.Part.OUTER, switchStart, switchEnd);
+            partsValid = false;
+        }
+
+        final int n = atoms.size;
+        final double[] x = atoms.x, y = atoms.y, vx = atoms.vx, vy = atoms.vy;
+        final double h = dt / innerSteps;
+
+        // calculate both parts for x(t) if they are not known from the previous step
+        Constants.CalculationType t;
+        if (!partsValid || !atomSet.isAccelerationValid())
+        {
+            t = calculatePart(atomSet, outerPotential, outerAx, outerAy, outerSums);
+            if (t != CalculationType.SUCCESS)
+            {
+                return t;
+            }
+            t = calculatePart(atomSet, innerPotential, innerAx, innerAy, innerSums);
+            if (t != CalculationType.SUCCESS)
+            {
+                return t;
+            }
+        }
+        partsValid = false;
+
+        // outer half kick
+        for (int i = 0; i < n; i++)
+        {
+            vx[i] += outerAx[i] * (dt / 2.0);
+            vy[i] += outerAy[i] * (dt / 2.0);
+        }
+
+        // inner Velocity Verlet steps
+        for (int k = 0; k < innerSteps; k++)
+        {
+            for (int i = 0; i < n; i++)
+            {
+                vx[i] += innerAx[i] * (h / 2.0);
+                vy[i] += innerAy[i] * (h / 2.0);
+                x[i] += vx[i] * h;
+                y[i] += vy[i] * h;
+            }
+            t = calculatePart(atomSet, innerPotential, innerAx, innerAy, innerSums);
+            if (t != CalculationType.SUCCESS)
+            {
+                return t;
+            }
+            for (int i = 0; i < n; i++)
+            {
+                vx[i] += innerAx[i] * (h / 2.0);
+                vy[i] += innerAy[i] * (h / 2.0);
+            }
+        }
+
+        // outer half kick using the outer part for x(t + dt)
+        t = calculatePart(atomSet, outerPotential, outerAx, outerAy, outerSums);
+        if (t != CalculationType.SUCCESS)
+        {
+            return t;
+        }
+        final double[] ax = atoms.ax, ay = atoms.ay;
+        for (int i = 0; i < n; i++)
+        {
+            vx[i] += outerAx[i] * (dt / 2.0);
+            vy[i] += outerAy[i] * (dt / 2.0);
+            if (Double.isNaN(vx[i]) || Double.isNaN(vy[i]) || Double.isNaN(x[i]) || Double.isNaN(y[i]))
+            {
+                return CalculationType.NAN_DETECTED;
+            }
+            // the full acceleration is the sum of both parts
+            ax[i] = innerAx[i] + outerAx[i];
+            ay[i] = innerAy[i] + outerAy[i];
+        }
+        atomSet.setAccelerationValid(innerSums[0] + outerSums[0], innerSums[1] + outerSums[1]);
+        partsValid = true;
+
+        return CalculationType.SUCCESS;
+    }
+
+    @Override
+    public int getInnerSteps()
+    {
+        return innerSteps;
+    }
+
+    @Override
+    public void reset()
+    {
+        partsValid = false;
+    }
+
+    /**
+     * Procedure calculates the acceleration caused by given part of the potential and copies it into given arrays.
+     * The gravity is a part of the slowly changing outer load
+     */
+    private Constants.CalculationType calculatePart(AtomSet atomSet, SplitPotential part, double[] ax, double[] ay,
+                                                    double[] sums)
+    {
+        final Constants.CalculationType t = atomSet.calculatePartialAcceleration(part, part == outerPotential,
+                sums);
+        if (t == CalculationType.SUCCESS)
+        {
+            final AtomStorage atoms = atomSet.getStorage();
+            System.arraycopy(atoms.ax, 0, ax, 0, atoms.size);
+            System.arraycopy(atoms.ay, 0, ay, 0, atoms.size);
+        }
+        return t;
+    }
+}
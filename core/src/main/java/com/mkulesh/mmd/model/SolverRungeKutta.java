@@ -16,12 +16,9 @@ package com.mkulesh.mmd.model;
 
 import com.mkulesh.mmd.model.Constants.CalculationType;
 
-import java.util.ArrayList;
-
 /**
  * This solver implements the Runge-Kutta integration method
  */
-@SuppressWarnings("unused")
 public class SolverRungeKutta implements SolverBase
 {
     // Currently used precision grade
@@ -43,70 +40,71 @@ public class SolverRungeKutta implements SolverBase
             { 1.0 / 4.0 - P2, 3.0 / 4.0, P2, 0, }, { 1.0 / 6.0, 1.0 / 3.0, 1.0 / 3.0, 1.0 / 6.0, } };
 
     // Helper arrays used to store coordinates and velocities from previous step
-    private Vector2D[] X1, V1;
+    private double[] X1, Y1, VX1, VY1;
 
     // Helper matrix where grade-dependent coefficients are stored
-    private Vector2D[][] K, P;
+    private double[][] KX, KY, PX, PY;
 
-    private int lastAtomNumber = 0;
+    // Number of atoms the helper arrays are allocated for. The arrays are only re-allocated if the atom number
+    // exceeds this capacity, so the steady-state step does not allocate any memory
+    private int capacity = -1;
 
     /**
      * Initialization method
      */
-    private void initialize(AtomSet atomSet)
+    private void initialize(int atomNumber)
     {
-        lastAtomNumber = atomSet.getAtoms().size();
-
-        X1 = new Vector2D[lastAtomNumber];
-        V1 = new Vector2D[lastAtomNumber];
-        K = new Vector2D[gradeSteps[usedGrade]][lastAtomNumber];
-        P = new Vector2D[gradeSteps[usedGrade]][lastAtomNumber];
-        for (int i = 0; i < lastAtomNumber; i++)
-        {
-            for (int k = 0; k < gradeSteps[usedGrade]; k++)
-            {
-                K[k][i] = new Vector2D();
-                P[k][i] = new Vector2D();
-            }
-            X1[i] = new Vector2D();
-            V1[i] = new Vector2D();
-        }
+        capacity = atomNumber;
+
+        X1 = new double[capacity];
+        Y1 = new double[capacity];
+        VX1 = new double[capacity];
+        VY1 = new double[capacity];
+        KX = new double[gradeSteps[usedGrade]][capacity];
+        KY = new double[gradeSteps[usedGrade]][capacity];
+        PX = new double[gradeSteps[usedGrade]][capacity];
+        PY = new double[gradeSteps[usedGrade]][capacity];
     }
 
     @Override
     public Constants.CalculationType calculateNextStep(AtomSet atomSet, double dt)
     {
-        ArrayList<Atom> atoms = atomSet.getAtoms();
-        if (lastAtomNumber != atoms.size())
+        final AtomStorage atoms = atomSet.getStorage();
+        if (capacity < atoms.size)
         {
-            initialize(atomSet);
+            initialize(atoms.size);
         }
 
+        final int n = atoms.size;
+        final double[] x = atoms.x, y = atoms.y, vx = atoms.vx, vy = atoms.vy, ax = atoms.ax, ay = atoms.ay;
         int i, j, k;
 
         // store the coordinates and velocities
-        for (i = 0; i < atoms.size(); i++)
-        {
-            X1[i].assign(atoms.get(i).coordinate);
-            V1[i].assign(atoms.get(i).velocity);
-        }
+        System.arraycopy(x, 0, X1, 0, n);
+        System.arraycopy(y, 0, Y1, 0, n);
+        System.arraycopy(vx, 0, VX1, 0, n);
+        System.arraycopy(vy, 0, VY1, 0, n);
 
         // calculate matrix P and K for each grade step where atoms will be
         // modified with intermediate values for coordinates and velocities
         for (k = 0; k < gradeSteps[usedGrade]; k++)
         {
             // prepare new coordinates and velocities for load calculation
-            for (i = 0; i < atoms.size(); i++)
+            for (i = 0; i < n; i++)
             {
-                atoms.get(i).coordinate.assign(X1[i]);
+                x[i] = X1[i];
+                y[i] = Y1[i];
                 if (k > 0)
                 {
-                    atoms.get(i).coordinate.add(P[k - 1][i].prod(A[usedGrade][k]));
+                    x[i] += PX[k - 1][i] * A[usedGrade][k];
+                    y[i] += PY[k - 1][i] * A[usedGrade][k];
                 }
-                atoms.get(i).velocity.assign(V1[i]);
+                vx[i] = VX1[i];
+                vy[i] = VY1[i];
                 for (j = 0; j < k; j++)
                 {
-                    atoms.get(i).velocity.add(K[j][i].prod(B[usedGrade][k][j]));
+                    vx[i] += KX[j][i] * B[usedGrade][k][j];
+                    vy[i] += KY[j][i] * B[usedGrade][k][j];
                 }
             }
             // calculate intermediate load value
@@ -117,26 +115,46 @@ public class SolverRungeKutta implements SolverBase
             }
 
             // set matrix P and K for this grade step
-            for (i = 0; i < atoms.size(); i++)
+            for (i = 0; i < n; i++)
             {
-                K[k][i].assign(atoms.get(i).acceleration.prod(dt));
-                P[k][i].assign(atoms.get(i).velocity.prod(dt));
+                KX[k][i] = ax[i] * dt;
+                KY[k][i] = ay[i] * dt;
+                PX[k][i] = vx[i] * dt;
+                PY[k][i] = vy[i] * dt;
             }
         }
 
         // re-calculate coordinates and velocities
-        for (i = 0; i < atoms.size(); i++)
+        for (i = 0; i < n; i++)
         {
-            atoms.get(i).velocity.assign(V1[i]);
-            atoms.get(i).coordinate.assign(X1[i]);
+            vx[i] = VX1[i];
+            vy[i] = VY1[i];
+            x[i] = X1[i];
+            y[i] = Y1[i];
             for (k = 0; k < gradeSteps[usedGrade]; k++)
             {
-                atoms.get(i).velocity.add(K[k][i].prod(C[usedGrade][k]));
-                atoms.get(i).coordinate.add(P[k][i].prod(C[usedGrade][k]));
+                vx[i] += KX[k][i] * C[usedGrade][k];
+                vy[i] += KY[k][i] * C[usedGrade][k];
+                x[i] += PX[k][i] * C[usedGrade][k];
+                y[i] += PY[k][i] * C[usedGrade][k];
             }
         }
 
+        // stored accelerations belong to the last intermediate configuration
+        atomSet.invalidateAcceleration();
         return CalculationType.SUCCESS;
     }
 
+    @Override
+    public int getInnerSteps()
+    {
+        return 1;
+    }
+
+    @Override
+    public void reset()
+    {
+        // empty: the solver does not keep any values between steps
+    }
+
 }
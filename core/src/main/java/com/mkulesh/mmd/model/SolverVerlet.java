@@ -16,12 +16,12 @@ package com.mkulesh.mmd.model;
 
 import com.mkulesh.mmd.model.Constants.CalculationType;
 
-import java.util.ArrayList;
-
 /**
  * This class implements Velocity Verlet integration method see: http://en.wikipedia.org/wiki/Verlet_integration
  *
- * Note that that this algorithm assumes that acceleration only depends on position, and does not depend on velocity
+ * Note that that this algorithm assumes that acceleration only depends on position, and does not depend on velocity.
+ * The acceleration a(t + dt) calculated at the end of a step is equal to a(t) of the next step, so it is kept in the
+ * atom set and each step needs only one force calculation as long as the atom set is not changed between steps
  */
 public class SolverVerlet implements SolverBase
 {
@@ -37,27 +37,28 @@ public class SolverVerlet implements SolverBase
     public Constants.CalculationType calculateNextStep(AtomSet atomSet, double dt)
     {
 
-        ArrayList<Atom> atoms = atomSet.getAtoms();
+        final AtomStorage atoms = atomSet.getStorage();
+        final int n = atoms.size;
+        final double[] x = atoms.x, y = atoms.y, vx = atoms.vx, vy = atoms.vy, ax = atoms.ax, ay = atoms.ay;
 
-        // store the coordinates x(t)
-        Vector2D[] xt = new Vector2D[atoms.size()];
-        for (int i = 0; i < atoms.size(); i++)
-        {
-            xt[i] = new Vector2D(atoms.get(i).coordinate);
-        }
-
-        // calculate acceleration a(t)
-        Constants.CalculationType t = atomSet.calculateAcceleration();
-        if (t != CalculationType.SUCCESS)
+        // calculate acceleration a(t) if it is not known from the previous step
+        Constants.CalculationType t;
+        if (!atomSet.isAccelerationValid())
         {
-            return t;
+            t = atomSet.calculateAcceleration();
+            if (t != CalculationType.SUCCESS)
+            {
+                return t;
+            }
         }
 
-        // calculate v(t + dt/2) and x´(t + dt)
-        for (Atom a : atomSet.getAtoms())
+        // calculate v(t + dt/2) and x(t + dt) = x(t) + v(t + dt/2) * dt
+        for (int i = 0; i < n; i++)
         {
-            a.velocity.add(a.acceleration.prod(dt / 2.0));
-            a.coordinate.add(a.velocity.prod(dt));
+            vx[i] += ax[i] * (dt / 2.0);
+            vy[i] += ay[i] * (dt / 2.0);
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
         }
 
         // calculate acceleration a(t + dt)
@@ -70,17 +71,11 @@ public class SolverVerlet implements SolverBase
         }
 
         // calculate v(t + dt)
-        for (Atom a : atomSet.getAtoms())
+        for (int i = 0; i < n; i++)
         {
-            a.velocity.add(a.acceleration.prod(dt / 2.0));
-        }
-
-        // re-calculate coordinates x(t + dt)
-        for (int i = 0; i < atoms.size(); i++)
-        {
-            Atom a = atoms.get(i);
-            a.coordinate.assign(xt[i].sum(a.velocity.prod(dt)));
-            if (a.velocity.isNaN() || a.coordinate.isNaN())
+            vx[i] += ax[i] * (dt / 2.0);
+            vy[i] += ay[i] * (dt / 2.0);
+            if (Double.isNaN(vx[i]) || Double.isNaN(vy[i]) || Double.isNaN(x[i]) || Double.isNaN(y[i]))
             {
                 return CalculationType.NAN_DETECTED;
             }
@@ -89,4 +84,16 @@ public class SolverVerlet implements SolverBase
         return CalculationType.SUCCESS;
     }
 
+    @Override
+    public int getInnerSteps()
+    {
+        return 1;
+    }
+
+    @Override
+    public void reset()
+    {
+        // empty: the solver does not keep any values between steps
+    }
+
 }
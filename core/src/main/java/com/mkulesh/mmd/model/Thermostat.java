@@ -0,0 +1,35 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * Thermostat interface used to control the temperature within the integration step
+ *
+ * A thermostat only changes the atom velocities. It is applied for a half of the time step before and after the
+ * solver step, so the accelerations stay valid and no potential energy calculation is needed.
+ */
+interface Thermostat
+{
+    /**
+     * Procedure resets the internal state of the thermostat, for example if the target temperature was set anew
+     */
+    void reset();
+
+    /**
+     * Procedure applies the thermostat to the atom velocities for the time interval dt. The target temperature is
+     * given as the mean squared velocity of an atom
+     */
+    void apply(AtomStorage atoms, double dt, double targetV2);
+}
@@ -0,0 +1,53 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * This class implements the Berendsen thermostat, see: Berendsen et al., "Molecular dynamics with coupling to an
+ * external bath", J. Chem. Phys. 81, 1984
+ *
+ * All velocities are scaled so that the temperature relaxes exponentially to the target temperature with the
+ * given coupling time. The thermostat is deterministic and smooth, but it does not produce a canonical ensemble.
+ */
+class ThermostatBerendsen implements Thermostat
+{
+    private final double couplingTime;
+
+    /**
+     * Default constructor. The coupling time is given in seconds
+     */
+    ThermostatBerendsen(double couplingTime)
+    {
+        this.couplingTime = couplingTime;
+    }
+
+    @Override
+    public void reset()
+    {
+        // nothing to do
+    }
+
+    @Override
+    public void apply(AtomStorage atoms, double dt, double targetV2)
+    {
+        final double v2 = atoms.getMeanSquaredVelocity();
+        if (v2 <= 0.0)
+        {
+            return;
+        }
+        final double lambda = Math.sqrt(Math.max(0.0, 1.0 + (dt / couplingTime) * (targetV2 / v2 - 1.0)));
+        atoms.scaleVelocities(lambda);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+import java.util.Random;
+
+/**
+ * This class implements the Langevin thermostat
+ *
+ * Each velocity component is damped with the friction 1 / couplingTime and receives a random impulse. The
+ * Ornstein-Uhlenbeck process is integrated exactly, so the result does not depend on the time step and the
+ * velocities relax to the Maxwell distribution of the target temperature. It can also heat up atoms at rest.
+ */
+class ThermostatLangevin implements Thermostat
+{
+    private final double couplingTime;
+    private final Random rand;
+
+    /**
+     * Default constructor. The coupling time is given in seconds
+     */
+    ThermostatLangevin(double couplingTime, Random rand)
+    {
+        this.couplingTime = couplingTime;
+        this.rand = rand;
+    }
+
+    @Override
+    public void reset()
+    {
+        // nothing to do
+    }
+
+    @Override
+    public void apply(AtomStorage atoms, double dt, double targetV2)
+    {
+        final double c1 = Math.exp(-dt / couplingTime);
+        // the mean squared velocity of an atom is distributed over two components
+        final double c2 = Math.sqrt((1.0 - c1 * c1) * targetV2 / 2.0);
+        final double[] vx = atoms.vx, vy = atoms.vy;
+        for (int i = 0; i < atoms.size; i++)
+        {
+            vx[i] = c1 * vx[i] + c2 * rand.nextGaussian();
+            vy[i] = c1 * vy[i] + c2 * rand.nextGaussian();
+        }
+    }
+}
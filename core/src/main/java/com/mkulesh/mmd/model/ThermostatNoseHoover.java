@@ -0,0 +1,60 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * This class implements the Nose-Hoover thermostat, see: Hoover, "Canonical dynamics: Equilibrium phase-space
+ * distributions", Phys. Rev. A 31, 1985
+ *
+ * The velocities are damped with the friction coefficient xi that is a dynamic variable itself: it grows while the
+ * temperature is above the target temperature and decreases otherwise. The coupling time defines the period of
+ * the thermostat oscillations. The friction is updated using half steps around the scaling of velocities, so the
+ * update is time-reversible.
+ */
+class ThermostatNoseHoover implements Thermostat
+{
+    private final double couplingTime;
+    private double xi = 0.0;
+
+    /**
+     * Default constructor. The coupling time is given in seconds
+     */
+    ThermostatNoseHoover(double couplingTime)
+    {
+        this.couplingTime = couplingTime;
+    }
+
+    @Override
+    public void reset()
+    {
+        xi = 0.0;
+    }
+
+    @Override
+    public void apply(AtomStorage atoms, double dt, double targetV2)
+    {
+        double v2 = atoms.getMeanSquaredVelocity();
+        if (v2 <= 0.0 || targetV2 <= 0.0)
+        {
+            return;
+        }
+        final double rate = dt / (2.0 * couplingTime * couplingTime);
+        xi += rate * (v2 / targetV2 - 1.0);
+        final double lambda = Math.exp(-xi * dt);
+        atoms.scaleVelocities(lambda);
+        v2 *= lambda * lambda;
+        xi += rate * (v2 / targetV2 - 1.0);
+    }
+}
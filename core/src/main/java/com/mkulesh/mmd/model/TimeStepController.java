@@ -0,0 +1,150 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.model;
+
+/**
+ * Class that implements an adaptive time step controller.
+ *
+ * Before each step, the controller predicts the largest displacement of an atom, v * dt + a * dt^2 / 2, using the
+ * maximum velocity and the maximum acceleration, and selects the time step so that this displacement does not
+ * exceed a given fraction of the optimal atom distance. This is the distance scale where the potential changes
+ * significantly, so the local integration error remains bounded. The step is reduced immediately if necessary,
+ * but grows back only gradually when the system becomes calm. In a calm system, it can exceed the nominal time
+ * step set by the user up to a fixed multiple of it.
+ *
+ * A step that produced invalid atoms despite the prediction is repeated with a reduced time step. The prediction
+ * is disabled if the displacement fraction is zero: the nominal time step is then only reduced after such steps.
+ */
+class TimeStepController
+{
+    // Ratio between two neighbouring time step levels
+    private static final double LEVEL_FACTOR = 2.0;
+
+    // The time step only grows to the next level if the predicted step exceeds this level by this margin
+    private static final double GROW_MARGIN = 1.5;
+
+    // Number of levels the time step is reduced by after a step that produced invalid atoms
+    private static final int REJECT_LEVELS = 2;
+
+    // Limits of the time step with respect to the nominal time step
+    private static final double MIN_FACTOR = 0.01;
+    private static final double MAX_FACTOR = 2.0;
+
+    private double timeStep = 0.0;
+    private double maxDisplacement = 0.0;
+
+    /**
+     * Default constructor
+     */
+    TimeStepController()
+    {
+        // empty
+    }
+
+    /**
+     * Procedure sets the maximum displacement of an atom within one step with respect to the optimal atom
+     * distance. The value 0 disables the prediction
+     */
+    void setMaxDisplacement(double maxDisplacement)
+    {
+        this.maxDisplacement = Math.max(0.0, maxDisplacement);
+    }
+
+    /**
+     * Procedure returns the last selected time step
+     */
+    double getTimeStep()
+    {
+        return timeStep;
+    }
+
+    /**
+     * Procedure resets the controller, for example if the atoms are re-created
+     */
+    void reset()
+    {
+        timeStep = 0.0;
+    }
+
+    /**
+     * Procedure selects the time step for the next integration step. The accelerations stored in the atom
+     * storage are used as an estimation of the current accelerations
+     */
+    double selectTimeStep(AtomStorage atoms, double nominalTimeStep, double optDistance)
+    {
+        final double minTimeStep = MIN_FACTOR * nominalTimeStep;
+        if (maxDisplacement <= 0.0)
+        {
+            // no prediction: a reduced step grows back by one level per step
+            timeStep = (timeStep > 0.0) ? Math.min(LEVEL_FACTOR * timeStep, nominalTimeStep) : nominalTimeStep;
+            return timeStep;
+        }
+
+        double v2 = 0.0, a2 = 0.0;
+        for (int i = 0; i < atoms.size; i++)
+        {
+            v2 = Math.max(v2, atoms.vx[i] * atoms.vx[i] + atoms.vy[i] * atoms.vy[i]);
+            if (!atoms.isAccelerationNaN(i))
+            {
+                a2 = Math.max(a2, atoms.ax[i] * atoms.ax[i] + atoms.ay[i] * atoms.ay[i]);
+            }
+        }
+        final double v = Math.sqrt(v2), a = Math.sqrt(a2);
+        final double d = maxDisplacement * optDistance;
+
+        // solve v * dt + a * dt^2 / 2 = d
+        double dt = MAX_FACTOR * nominalTimeStep;
+        if (a > 0.0)
+        {
+            dt = Math.min(dt, (Math.sqrt(v * v + 2.0 * a * d) - v) / a);
+        }
+        else if (v > 0.0)
+        {
+            dt = Math.min(dt, d / v);
+        }
+
+        // the step is reduced immediately to the highest level below the predicted step, but only grows to the
+        // next level if the predicted step exceeds it by the margin
+        double level = MAX_FACTOR * nominalTimeStep;
+        while (level > dt && level / LEVEL_FACTOR >= minTimeStep)
+        {
+            level /= LEVEL_FACTOR;
+        }
+        if (timeStep > 0.0 && level > timeStep)
+        {
+            level = (dt >= GROW_MARGIN * LEVEL_FACTOR * timeStep) ? LEVEL_FACTOR * timeStep : timeStep;
+        }
+        timeStep = level;
+        return timeStep;
+    }
+
+    /**
+     * Procedure reduces the time step after a step that produced invalid atoms. Returns false if the time step
+     * has already reached its minimum, i.e. the step can not be repeated
+     */
+    boolean reject(double nominalTimeStep)
+    {
+        final double minTimeStep = MIN_FACTOR * nominalTimeStep;
+        if (timeStep / LEVEL_FACTOR < minTimeStep)
+        {
+            return false;
+        }
+        for (int k = 0; k < REJECT_LEVELS && timeStep / LEVEL_FACTOR >= minTimeStep; k++)
+        {
+            timeStep /= LEVEL_FACTOR;
+        }
+        return true;
+    }
+}
@@ -14,61 +14,39 @@
 
 package com.mkulesh.mmd.model;
 
-import android.os.Parcel;
-import android.os.Parcelable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Class that implements a 2D vector
  */
-public class Vector2D implements Parcelable
+public class Vector2D
 {
     /**
-     * State attributes to be stored in Parcel
+     * State attributes to be stored
      */
     public double x = 0.0;
     public double y = 0.0;
 
     /**
-     * Parcelable interface
+     * Procedure writes the state of this vector
      */
-    private Vector2D(Parcel in)
+    void writeState(DataOutput out) throws IOException
     {
-        super();
-        readFromParcel(in);
-    }
-
-    @Override
-    public int describeContents()
-    {
-        return 0;
-    }
-
-    @Override
-    public void writeToParcel(Parcel dest, int flags)
-    {
-        dest.writeDouble(x);
-        dest.writeDouble(y);
+        out.writeDouble(x);
+        out.writeDouble(y);
     }
 
-    void readFromParcel(Parcel in)
+    /**
+     * Procedure reads the state of this vector
+     */
+    void readState(DataInput in) throws IOException
     {
         x = in.readDouble();
         y = in.readDouble();
     }
 
-    public static final Parcelable.Creator<Vector2D> CREATOR = new Parcelable.Creator<Vector2D>()
-    {
-        public Vector2D createFromParcel(Parcel in)
-        {
-            return new Vector2D(in);
-        }
-
-        public Vector2D[] newArray(int size)
-        {
-            return new Vector2D[size];
-        }
-    };
-
     /**
      * Default constructor
      */
@@ -151,7 +129,7 @@ public class Vector2D implements Parcelable
     /**
      * Procedure calculates vector modulus
      */
-    double mod()
+    public double mod()
     {
         return Math.sqrt(x * x + y * y);
     }
@@ -194,6 +172,16 @@ public class Vector2D implements Parcelable
         y += p.y;
     }
 
+    /**
+     * Procedure adds given vector p multiplied with constant s to this vector. In contrast to sum() and prod(),
+     * it does not create temporary objects
+     */
+    public void addScaled(Vector2D p, double s)
+    {
+        x += p.x * s;
+        y += p.y * s;
+    }
+
     /**
      * Procedure returns composition of this vector with given vector p
      */
@@ -254,19 +242,4 @@ public class Vector2D implements Parcelable
     {
         return new Vector2D(x / p, y / p);
     }
-
-    /**
-     * Procedure rotates the vector based on two rotation parameters
-     */
-    void rotate(int previousRotation, int currentRotation)
-    {
-        int r = previousRotation - currentRotation;
-        double d = (r > 0) ? -1.0 : 1.0;
-        for (int k = 0; k < Math.abs(r); k++)
-        {
-            double xprev = x;
-            x = d * y;
-            y = -1.0 * d * xprev;
-        }
-    }
 }
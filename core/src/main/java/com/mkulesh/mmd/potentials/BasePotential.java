@@ -14,8 +14,6 @@
 
 package com.mkulesh.mmd.potentials;
 
-import android.content.Context;
-
 public interface BasePotential
 {
     enum ValueType
@@ -50,12 +48,18 @@ public interface BasePotential
     double getValue(double r);
 
     /**
-     * Procedure returns resource id for the potential formula
+     * Procedure returns the name of the image resource with the potential formula, or null if there is no formula
      */
-    int getFormulaResourceId(Context context, ValueType type);
+    String getFormulaResource(ValueType type);
 
     /**
      * Procedure returns the value of potential derivative
      */
     double getDerivative(double r);
+
+    /**
+     * Procedure calculates both the potential value and its derivative for the same distance in one call. The value
+     * is stored in result[0] and the derivative in result[1]
+     */
+    void getValueAndDerivative(double r, double[] result);
 }
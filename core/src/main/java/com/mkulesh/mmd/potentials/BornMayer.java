@@ -14,10 +14,6 @@
 
 package com.mkulesh.mmd.potentials;
 
-import android.content.Context;
-
-import com.mkulesh.mmd.utils.SVGUtils;
-
 public class BornMayer implements BasePotential
 {
     private final double eps = 0.1;
@@ -63,10 +59,9 @@ public class BornMayer implements BasePotential
     }
 
     @Override
-    public int getFormulaResourceId(Context context, ValueType type)
+    public String getFormulaResource(ValueType type)
     {
-        return (type == ValueType.VALUE) ? SVGUtils.getResourceIdFromName("res/raw/formula_pv_born_mayer.svg", context,
-                false) : SVGUtils.getResourceIdFromName("res/raw/formula_pd_born_mayer.svg", context, false);
+        return (type == ValueType.VALUE) ? "res/raw/formula_pv_born_mayer.svg" : "res/raw/formula_pd_born_mayer.svg";
     }
 
     @Override
@@ -74,4 +69,12 @@ public class BornMayer implements BasePotential
     {
         return (-eps * rho / sig) * Math.exp(-rho * (r - sig) / sig);
     }
+
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        final double e = eps * Math.exp(-rho * (r - sig) / sig);
+        result[0] = e;
+        result[1] = (-rho / sig) * e;
+    }
 }
@@ -14,8 +14,6 @@
 
 package com.mkulesh.mmd.potentials;
 
-import android.content.Context;
-
 @SuppressWarnings("unused")
 public class Johnson implements BasePotential
 {
@@ -71,9 +69,9 @@ public class Johnson implements BasePotential
     }
 
     @Override
-    public int getFormulaResourceId(Context context, ValueType type)
+    public String getFormulaResource(ValueType type)
     {
-        return 0;
+        return null;
     }
 
     @Override
@@ -94,4 +92,10 @@ public class Johnson implements BasePotential
         return 0.0;
     }
 
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        result[0] = getValue(r);
+        result[1] = getDerivative(r);
+    }
 }
@@ -14,10 +14,6 @@
 
 package com.mkulesh.mmd.potentials;
 
-import android.content.Context;
-
-import com.mkulesh.mmd.utils.SVGUtils;
-
 public class LennardJones implements BasePotential
 {
     // http://test.kirensky.ru/master/articles/monogr/Book/Chapter_1_9.htm:
@@ -68,11 +64,10 @@ public class LennardJones implements BasePotential
     }
 
     @Override
-    public int getFormulaResourceId(Context context, ValueType type)
+    public String getFormulaResource(ValueType type)
     {
-        return (type == ValueType.VALUE) ? SVGUtils.getResourceIdFromName("res/raw/formula_pv_lennard_jones.svg",
-                context, false) : SVGUtils
-                .getResourceIdFromName("res/raw/formula_pd_lennard_jones.svg", context, false);
+        return (type == ValueType.VALUE) ? "res/raw/formula_pv_lennard_jones.svg"
+                : "res/raw/formula_pd_lennard_jones.svg";
     }
 
     @Override
@@ -80,4 +75,14 @@ public class LennardJones implements BasePotential
     {
         return -24.0 * eps * (2.0 * Math.pow(sig / r, 12.0) - Math.pow(sig / r, 6.0)) / r;
     }
+
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        final double s2 = (sig / r) * (sig / r);
+        final double s6 = s2 * s2 * s2;
+        final double s12 = s6 * s6;
+        result[0] = 4.0 * eps * (s12 - s6);
+        result[1] = -24.0 * eps * (2.0 * s12 - s6) / r;
+    }
 }
@@ -14,10 +14,6 @@
 
 package com.mkulesh.mmd.potentials;
 
-import android.content.Context;
-
-import com.mkulesh.mmd.utils.SVGUtils;
-
 public class Morse implements BasePotential
 {
     // http://test.kirensky.ru/master/articles/monogr/Book/Chapter_1_9.htm:
@@ -85,10 +81,9 @@ public class Morse implements BasePotential
     }
 
     @Override
-    public int getFormulaResourceId(Context context, ValueType type)
+    public String getFormulaResource(ValueType type)
     {
-        return (type == ValueType.VALUE) ? SVGUtils.getResourceIdFromName("res/raw/formula_pv_morse.svg", context,
-                false) : SVGUtils.getResourceIdFromName("res/raw/formula_pd_morse.svg", context, false);
+        return (type == ValueType.VALUE) ? "res/raw/formula_pv_morse.svg" : "res/raw/formula_pd_morse.svg";
     }
 
     @Override
@@ -97,4 +92,13 @@ public class Morse implements BasePotential
         return eps * (-2.0 * alpha * Math.exp(-2.0 * alpha * (r - sig)) + 2.0 * alpha * Math.exp(-alpha * (r - sig)));
     }
 
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        final double e1 = Math.exp(-alpha * (r - sig));
+        final double e2 = e1 * e1;
+        result[0] = eps * (e2 - 2.0 * e1);
+        result[1] = eps * (-2.0 * alpha * e2 + 2.0 * alpha * e1);
+    }
+
 }
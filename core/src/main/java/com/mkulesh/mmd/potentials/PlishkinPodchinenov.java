@@ -14,8 +14,6 @@
 
 package com.mkulesh.mmd.potentials;
 
-import android.content.Context;
-
 @SuppressWarnings("unused")
 public class PlishkinPodchinenov implements BasePotential
 {
@@ -83,9 +81,9 @@ public class PlishkinPodchinenov implements BasePotential
     }
 
     @Override
-    public int getFormulaResourceId(Context context, ValueType type)
+    public String getFormulaResource(ValueType type)
     {
-        return 0;
+        return null;
     }
 
     @Override
@@ -105,4 +103,11 @@ public class PlishkinPodchinenov implements BasePotential
         }
         return 0.0;
     }
+
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        result[0] = getValue(r);
+        result[1] = getDerivative(r);
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.potentials;
+
+/**
+ * Class that implements one part of a potential split into a short-range inner part and a long-range outer part.
+ *
+ * The inner part is S(r) * f(r) and the outer part is (1 - S(r)) * f(r), where the switching function S(r) is
+ * equal to one below the switch start, equal to zero above the switch end and decreases smoothly in between. Both
+ * parts sum up exactly to the wrapped potential, so a multiple time step solver can integrate them with different
+ * time steps without changing the total energy. The inner part vanishes above the switch end, so its threshold is
+ * equal to the switch end.
+ */
+public class SplitPotential implements BasePotential
+{
+    public enum Part
+    {
+        INNER,
+        OUTER
+    }
+
+    private final BasePotential function;
+    private final Part part;
+    private final double switchStart, switchEnd;
+
+    /**
+     * Default constructor
+     */
+    public SplitPotential(BasePotential function, Part part, double switchStart, double switchEnd)
+    {
+        super();
+        this.function = function;
+        this.part = part;
+        this.switchEnd = Math.min(switchEnd, function.getThreshold());
+        this.switchStart = Math.min(switchStart, this.switchEnd);
+    }
+
+    /**
+     * Procedure returns the wrapped potential
+     */
+    public BasePotential getFunction()
+    {
+        return function;
+    }
+
+    @Override
+    public String getName()
+    {
+        return function.getName();
+    }
+
+    @Override
+    public double getThreshold()
+    {
+        return (part == Part.INNER) ? switchEnd : function.getThreshold();
+    }
+
+    @Override
+    public double getOptDistance()
+    {
+        return function.getOptDistance();
+    }
+
+    @Override
+    public double getPotentialMin()
+    {
+        return function.getPotentialMin();
+    }
+
+    @Override
+    public String getFormulaResource(ValueType type)
+    {
+        return function.getFormulaResource(type);
+    }
+
+    @Override
+    public double getValue(double r)
+    {
+        final double s = getSwitch(r);
+        return (s == 0.0) ? 0.0 : s * function.getValue(r);
+    }
+
+    @Override
+    public double getDerivative(double r)
+    {
+        // computed directly instead of via a scratch array, so the method remains allocation-free and thread-safe
+        final double s = getSwitch(r);
+        if (s == 0.0)
+        {
+            return 0.0;
+        }
+        final double df = function.getDerivative(r);
+        if (s == 1.0)
+        {
+            return df;
+        }
+        // (s * f)' = s' * f + s * f'
+        return getSwitchDerivative(r) * function.getValue(r) + s * df;
+    }
+
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        final double s = getSwitch(r);
+        if (s == 0.0)
+        {
+            result[0] = 0.0;
+            result[1] = 0.0;
+            return;
+        }
+        function.getValueAndDerivative(r, result);
+        if (s == 1.0)
+        {
+            return;
+        }
+        // (s * f)' = s' * f + s * f'
+        final double f = result[0];
+        result[0] = s * f;
+        result[1] = getSwitchDerivative(r) * f + s * result[1];
+    }
+
+    /**
+     * Procedure returns the weight of this part for given distance: the switching function for the inner part
+     * and its complement for the outer part
+     */
+    private double getSwitch(double r)
+    {
+        double s;
+        if (r <= switchStart)
+        {
+            s = 1.0;
+        }
+        else if (r >= switchEnd)
+        {
+            s = 0.0;
+        }
+        else
+        {
+            // quintic polynomial with vanishing first and second derivatives at both ends
+            final double x = (r - switchStart) / (switchEnd - switchStart);
+            s = 1.0 - x * x * x * (10.0 + x * (-15.0 + 6.0 * x));
+        }
+        return (part == Part.INNER) ? s : 1.0 - s;
+    }
+
+    /**
+     * Procedure returns the derivative of the weight within the switching interval
+     */
+    private double getSwitchDerivative(double r)
+    {
+        final double w = switchEnd - switchStart;
+        final double x = (r - switchStart) / w;
+        final double ds = -30.0 * x * x * (1.0 - x) * (1.0 - x) / w;
+        return (part == Part.INNER) ? ds : -ds;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.potentials;
+
+import com.mkulesh.mmd.utils.LogUtils;
+
+/**
+ * Class that implements a tabulated wrapper for any potential.
+ *
+ * The value and the derivative of the wrapped potential are tabulated on an equidistant grid of the squared
+ * distance s = r^2 between the minimum distance and the threshold, and interpolated using cubic Hermite splines.
+ * The table resolution is doubled until the interpolation error measured in the middle of each grid interval is
+ * below the given maximum error. The error is relative to the potential depth for the value and to the potential
+ * depth divided by the optimal distance for the derivative. Distances below the minimum distance, where the
+ * potential is too steep for the table, are calculated using the wrapped potential.
+ */
+public class TabulatedPotential implements BasePotential
+{
+    // Maximum table resolution: the table is not refined beyond this size even if the error is not reached
+    public static final int MAX_RESOLUTION = 65536;
+
+    // Minimum tabulated distance with respect to the optimal distance
+    private static final double MIN_DISTANCE_FACTOR = 0.5;
+
+    // Number of table entries per grid point
+    private static final int STRIDE = 4;
+
+    private final BasePotential function;
+    private final double sMin, sMax;
+    private int resolution = 0;
+    private double ds = 1.0, invDs = 1.0;
+
+    // Interleaved table: for each grid point, the potential value, its derivative by s multiplied with ds, the
+    // potential derivative by r and its derivative by s multiplied with ds. The interleaving keeps all data
+    // needed for one lookup within a few cache lines
+    private double[] table;
+
+    /**
+     * Default constructor
+     */
+    public TabulatedPotential(BasePotential function, int resolution, double maxError)
+    {
+        super();
+        this.function = function;
+        final double rMin = MIN_DISTANCE_FACTOR * function.getOptDistance();
+        sMin = rMin * rMin;
+        sMax = function.getThreshold() * function.getThreshold();
+
+        int n = Math.max(4, Math.min(resolution, MAX_RESOLUTION));
+        double error;
+        while (true)
+        {
+            fillTable(n);
+            error = calculateError();
+            if (error <= maxError || n >= MAX_RESOLUTION)
+            {
+                break;
+            }
+            n = Math.min(2 * n, MAX_RESOLUTION);
+        }
+        LogUtils.Debug(this, function.getName() + ": table resolution " + this.resolution + ", error " + error);
+    }
+
+    /**
+     * Procedure returns the wrapped potential
+     */
+    public BasePotential getFunction()
+    {
+        return function;
+    }
+
+    /**
+     * Procedure returns the actual table resolution
+     */
+    public int getResolution()
+    {
+        return resolution;
+    }
+
+    @Override
+    public String getName()
+    {
+        return function.getName();
+    }
+
+    @Override
+    public double getThreshold()
+    {
+        return function.getThreshold();
+    }
+
+    @Override
+    public double getOptDistance()
+    {
+        return function.getOptDistance();
+    }
+
+    @Override
+    public double getPotentialMin()
+    {
+        return function.getPotentialMin();
+    }
+
+    @Override
+    public String getFormulaResource(ValueType type)
+    {
+        return function.getFormulaResource(type);
+    }
+
+    @Override
+    public double getValue(double r)
+    {
+        final double s = r * r;
+        if (s < sMin || s > sMax)
+        {
+            return function.getValue(r);
+        }
+        final double t = (s - sMin) * invDs;
+        final int k = Math.min((int) t, resolution - 1);
+        return interpolate(STRIDE * k, t - k);
+    }
+
+    @Override
+    public double getDerivative(double r)
+    {
+        final double s = r * r;
+        if (s < sMin || s > sMax)
+        {
+            return function.getDerivative(r);
+        }
+        final double t = (s - sMin) * invDs;
+        final int k = Math.min((int) t, resolution - 1);
+        return interpolate(STRIDE * k + 2, t - k);
+    }
+
+    @Override
+    public void getValueAndDerivative(double r, double[] result)
+    {
+        final double s = r * r;
+        if (s < sMin || s > sMax)
+        {
+            function.getValueAndDerivative(r, result);
+            return;
+        }
+        final double t = (s - sMin) * invDs;
+        final int k = Math.min((int) t, resolution - 1);
+        final double u = t - k;
+        final int i = STRIDE * k;
+
+        // Hermite basis functions are shared by both splines
+        final double u2 = u * u, u3 = u2 * u;
+        final double h01 = 3.0 * u2 - 2.0 * u3;
+        final double h00 = 1.0 - h01;
+        final double h10 = u3 - 2.0 * u2 + u;
+        final double h11 = u3 - u2;
+        result[0] = h00 * table[i] + h10 * table[i + 1] + h01 * table[i + STRIDE] + h11 * table[i + STRIDE + 1];
+        result[1] = h00 * table[i + 2] + h10 * table[i + 3] + h01 * table[i + STRIDE + 2]
+                + h11 * table[i + STRIDE + 3];
+    }
+
+    /**
+     * Procedure fills the table with given number of grid intervals
+     */
+    private void fillTable(int n)
+    {
+        resolution = n;
+        ds = (sMax - sMin) / n;
+        invDs = 1.0 / ds;
+        table = new double[STRIDE * (n + 1)];
+        final double[] res = new double[2];
+        for (int k = 0; k <= n; k++)
+        {
+            final double r = Math.sqrt(sMin + k * ds);
+            function.getValueAndDerivative(r, res);
+            // d/ds = d/dr / (2 r); the second derivative is not provided by the potential and is calculated
+            // using central differences
+            final double h = 1.0e-5 * r;
+            final double d2 = (function.getDerivative(r + h) - function.getDerivative(r - h)) / (2.0 * h);
+            table[STRIDE * k] = res[0];
+            table[STRIDE * k + 1] = ds * res[1] / (2.0 * r);
+            table[STRIDE * k + 2] = res[1];
+            table[STRIDE * k + 3] = ds * d2 / (2.0 * r);
+        }
+    }
+
+    /**
+     * Procedure calculates the maximum relative interpolation error in the middle of grid intervals
+     */
+    private double calculateError()
+    {
+        final double valueScale = Math.max(Math.abs(function.getPotentialMin()), Double.MIN_NORMAL);
+        final double derivativeScale = valueScale / function.getOptDistance();
+        final double[] res = new double[2];
+        double error = 0.0;
+        for (int k = 0; k < resolution; k++)
+        {
+            final double r = Math.sqrt(sMin + (k + 0.5) * ds);
+            function.getValueAndDerivative(r, res);
+            final double v = interpolate(STRIDE * k, 0.5);
+            final double d = interpolate(STRIDE * k + 2, 0.5);
+            error = Math.max(error, Math.abs(v - res[0]) / Math.max(Math.abs(res[0]), valueScale));
+            error = Math.max(error, Math.abs(d - res[1]) / Math.max(Math.abs(res[1]), derivativeScale));
+        }
+        return error;
+    }
+
+    /**
+     * Procedure interpolates the function stored at given table offset: the function value at the left grid point
+     * is stored at index i, its slope at index i + 1, and the values at the right grid point follow with STRIDE
+     */
+    private double interpolate(int i, double u)
+    {
+        final double u2 = u * u, u3 = u2 * u;
+        final double h01 = 3.0 * u2 - 2.0 * u3;
+        return (1.0 - h01) * table[i] + (u3 - 2.0 * u2 + u) * table[i + 1] + h01 * table[i + STRIDE]
+                + (u3 - u2) * table[i + STRIDE + 1];
+    }
+}
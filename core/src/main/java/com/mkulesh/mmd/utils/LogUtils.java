@@ -0,0 +1,28 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.utils;
+
+/**
+ * Class that collects logging methods used by the simulation core. It does not depend on the Android framework,
+ * so the core can be used on a desktop JVM as well
+ */
+public class LogUtils
+{
+    @SuppressWarnings({ "unused", "EmptyMethod" })
+    public static void Debug(Object o, String text)
+    {
+        //System.out.println(o.getClass().getSimpleName() + ": " + text + ".");
+    }
+}
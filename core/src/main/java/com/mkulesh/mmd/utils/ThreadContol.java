@@ -0,0 +1,143 @@
+/*
+ * Molecular Dynamics - Particles under the microscope
+ * Copyright (C) 2014-2020 Mikhail Kulesh
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details. You should have received a copy of the GNU General
+ * Public License along with this program.
+ */
+
+package com.mkulesh.mmd.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class that implements pause and interruption signalling between threads.
+ *
+ * The whole state is stored in a single atomic word: the lowest bit is the interruption flag, the remaining bits
+ * hold the number of pause events. The checks are therefore plain volatile reads without monitor acquisition and
+ * can be performed in a calculation loop. Waiting threads are parked and unparked by the resume.
+ */
+public class ThreadContol
+{
+    private static final int INTERRUPTED = 1;
+    private static final int PAUSE = 2;
+
+    private final AtomicInteger state = new AtomicInteger(0);
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    public ThreadContol()
+    {
+        super();
+    }
+
+    /**
+     * Check whether the thread is paused
+     */
+    public boolean isPaused()
+    {
+        return state.get() >= PAUSE;
+    }
+
+    /**
+     * Check whether the thread is interrupted
+     */
+    public boolean isInterrupted()
+    {
+        return (state.get() & INTERRUPTED) != 0;
+    }
+
+    /**
+     * Adds a new pause event into the stack
+     */
+    public void pause()
+    {
+        state.addAndGet(PAUSE);
+    }
+
+    /**
+     * Sets an interruption flag
+     */
+    public void setInterrupted(boolean flag)
+    {
+        while (true)
+        {
+            final int s = state.get();
+            if (state.compareAndSet(s, flag ? (s | INTERRUPTED) : (s & ~INTERRUPTED)))
+            {
+                break;
+            }
+        }
+        if (flag)
+        {
+            wakeWaiters();
+        }
+    }
+
+    /**
+     * Resumes one or all pause events from the stack
+     */
+    public void resume(boolean resumeAll)
+    {
+        while (true)
+        {
+            final int s = state.get();
+            int n = s;
+            if (resumeAll)
+            {
+                n = s & INTERRUPTED;
+            }
+            else if (s >= PAUSE)
+            {
+                n = s - PAUSE;
+            }
+            if (state.compareAndSet(s, n))
+            {
+                if (n < PAUSE)
+                {
+                    wakeWaiters();
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Blocks the current thread while the pause is active. The waiting is also finished if the interruption
+     * flag is set or the thread itself is interrupted
+     */
+    public void waitWhilePaused()
+    {
+        final Thread current = Thread.currentThread();
+        // the thread is registered before the state is checked, so a resume between the check and the park
+        // will unpark it
+        waiters.add(current);
+        try
+        {
+            while (state.get() >= PAUSE && !isInterrupted() && !current.isInterrupted())
+            {
+                LockSupport.park(this);
+            }
+        }
+        finally
+        {
+            waiters.remove(current);
+        }
+    }
+
+    private void wakeWaiters()
+    {
+        for (Thread t : waiters)
+        {
+            LockSupport.unpark(t);
+        }
+    }
+}